@@ -2,11 +2,13 @@ package wakeb.example.microservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * The entry point of the Spring Boot application.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class Application {
 
     /**
@@ -0,0 +1,123 @@
+package wakeb.example.microservice.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import feign.Client;
+import feign.RequestInterceptor;
+import feign.Retryer;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.codec.ErrorDecoder;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wakeb.example.microservice.config.BookProperties;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Feign configuration of the {@link BooksClient}, applied to that client only. It is
+ * deliberately not annotated with {@code @Configuration}, so component scanning does not turn
+ * it into the default of every Feign client.
+ */
+public class BooksClientConfiguration {
+
+    /**
+     * Media type of the CBOR documents exchanged with the books API.
+     */
+    public static final String CBOR = "application/cbor";
+
+    /**
+     * Encoder writing request bodies as CBOR.
+     *
+     * @param builder Spring Boot's Jackson builder, carrying the application's modules and features.
+     * @return the encoder.
+     */
+    @Bean
+    public Encoder booksClientEncoder(Jackson2ObjectMapperBuilder builder) {
+        return new CborEncoder(cborMapper(builder));
+    }
+
+    /**
+     * Decoder reading CBOR response bodies.
+     *
+     * @param builder Spring Boot's Jackson builder, carrying the application's modules and features.
+     * @return the decoder.
+     */
+    @Bean
+    public Decoder booksClientDecoder(Jackson2ObjectMapperBuilder builder) {
+        return new CborDecoder(cborMapper(builder));
+    }
+
+    /**
+     * HTTP client of the books API. Requests go through the pooled Apache HttpClient shared by
+     * the Feign clients, which keeps connections alive between calls; {@link Hedged} requests are
+     * duplicated when slow, and GET responses carrying an ETag are revalidated instead of refetched.
+     *
+     * @param httpClient5                the pooled Apache HttpClient configured by {@code spring.cloud.openfeign.httpclient.*}.
+     * @param booksClientHedgingExecutor the executor running the attempts of hedged requests.
+     * @param properties                 the settings of the books client.
+     * @param meterRegistry              the registry receiving the client metrics.
+     * @return the client.
+     */
+    @Bean
+    public Client booksClientHttpClient(CloseableHttpClient httpClient5, ExecutorService booksClientHedgingExecutor,
+                                        BookProperties properties, MeterRegistry meterRegistry) {
+        BookProperties.Client settings = properties.getClient();
+        Client hedging = new HedgingClient(new ApacheHttp5Client(httpClient5), booksClientHedgingExecutor,
+                settings.getHedgeInitialDelay(), settings.getHedgeMinDelay(), meterRegistry);
+        return new ETagCachingClient(hedging, settings.getResponseCacheSize().toBytes(), meterRegistry);
+    }
+
+    /**
+     * Executor running the attempts of hedged requests, one virtual thread each.
+     *
+     * @return the executor.
+     */
+    @Bean
+    public ExecutorService booksClientHedgingExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Retryer backing off exponentially between attempts. Only errors the
+     * {@link BooksClientErrorDecoder} marks as retryable, and I/O errors, are retried.
+     *
+     * @param properties the settings of the books client.
+     * @return the retryer.
+     */
+    @Bean
+    public Retryer booksClientRetryer(BookProperties properties) {
+        BookProperties.Client settings = properties.getClient();
+        return new Retryer.Default(settings.getRetryPeriod().toMillis(), settings.getRetryMaxPeriod().toMillis(),
+                settings.getRetryMaxAttempts());
+    }
+
+    /**
+     * Error decoder making transient errors of repeatable requests retryable.
+     *
+     * @return the error decoder.
+     */
+    @Bean
+    public ErrorDecoder booksClientErrorDecoder() {
+        return new BooksClientErrorDecoder();
+    }
+
+    /**
+     * Interceptor giving every write an Idempotency-Key, so retrying it is safe.
+     *
+     * @return the interceptor.
+     */
+    @Bean
+    public RequestInterceptor booksClientIdempotencyKeyInterceptor() {
+        return new IdempotencyKeyInterceptor();
+    }
+
+    private static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        // Unknown properties are ignored by the builder's defaults, so newer servers stay readable
+        return builder.factory(new CBORFactory()).build();
+    }
+}
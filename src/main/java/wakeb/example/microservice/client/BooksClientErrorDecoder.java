@@ -0,0 +1,37 @@
+package wakeb.example.microservice.client;
+
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import feign.codec.ErrorDecoder;
+import wakeb.example.microservice.idempotency.IdempotencyKeyFilter;
+
+/**
+ * Error decoder turning transient server errors (502, 503 and 504) into retryable exceptions
+ * for requests that are safe to send again: GETs, and writes carrying an Idempotency-Key, which
+ * the books service runs only once. Every other error is decoded as usual.
+ */
+public class BooksClientErrorDecoder implements ErrorDecoder {
+
+    private final ErrorDecoder delegate = new ErrorDecoder.Default();
+
+    @Override
+    public Exception decode(String methodKey, Response response) {
+        Exception exception = delegate.decode(methodKey, response);
+        Request request = response.request();
+        if (exception instanceof RetryableException || !isTransient(response.status()) || !isRepeatable(request)) {
+            return exception;
+        }
+        return new RetryableException(response.status(), exception.getMessage(), request.httpMethod(),
+                exception, (Long) null, request);
+    }
+
+    private static boolean isTransient(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    private static boolean isRepeatable(Request request) {
+        return request.httpMethod() == Request.HttpMethod.GET
+                || request.headers().containsKey(IdempotencyKeyFilter.IDEMPOTENCY_KEY);
+    }
+}
@@ -0,0 +1,38 @@
+package wakeb.example.microservice.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Feign decoder reading CBOR response bodies. Empty bodies, as sent with 204 No Content,
+ * decode to the empty value of the return type.
+ */
+public class CborDecoder implements Decoder {
+
+    private final ObjectMapper cborMapper;
+
+    /**
+     * Creates a decoder.
+     *
+     * @param cborMapper the mapper reading CBOR; its factory must be a {@code CBORFactory}.
+     */
+    public CborDecoder(ObjectMapper cborMapper) {
+        this.cborMapper = cborMapper;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (response.body() == null || response.status() == 204) {
+            return Util.emptyValueOf(type);
+        }
+        try (InputStream body = response.body().asInputStream()) {
+            return cborMapper.readValue(body, cborMapper.constructType(type));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package wakeb.example.microservice.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+import org.springframework.http.HttpHeaders;
+
+import java.lang.reflect.Type;
+
+/**
+ * Feign encoder writing request bodies as CBOR.
+ */
+public class CborEncoder implements Encoder {
+
+    private final ObjectMapper cborMapper;
+
+    /**
+     * Creates an encoder.
+     *
+     * @param cborMapper the mapper writing CBOR; its factory must be a {@code CBORFactory}.
+     */
+    public CborEncoder(ObjectMapper cborMapper) {
+        this.cborMapper = cborMapper;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) {
+        try {
+            template.body(cborMapper.writerFor(cborMapper.constructType(bodyType)).writeValueAsBytes(object), null);
+        } catch (JsonProcessingException e) {
+            throw new EncodeException("Could not write request body as CBOR", e);
+        }
+        template.removeHeader(HttpHeaders.CONTENT_TYPE);
+        template.header(HttpHeaders.CONTENT_TYPE, BooksClientConfiguration.CBOR);
+    }
+}
@@ -0,0 +1,117 @@
+package wakeb.example.microservice.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feign client keeping the bodies of GET responses that carry an ETag. Later GETs of the same
+ * URL and media type are sent with If-None-Match; a 304 Not Modified is answered from the kept
+ * body, so unchanged resources cost a round trip but no transfer or parsing on the server side.
+ * Every request is still revalidated, so the client never returns a body the server would not.
+ */
+public class ETagCachingClient implements Client {
+
+    /**
+     * Name of the counter of responses served from the cache after a 304 Not Modified.
+     */
+    public static final String REVALIDATED_COUNTER = "books.client.cache.revalidated";
+
+    private final Client delegate;
+
+    private final Cache<String, CachedBody> cache;
+
+    private final Counter revalidated;
+
+    /**
+     * Creates a caching client.
+     *
+     * @param delegate      the client performing the requests.
+     * @param maxBytes      the total size of the response bodies kept.
+     * @param meterRegistry the registry receiving the revalidation counter.
+     */
+    public ETagCachingClient(Client delegate, long maxBytes, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedBody body) -> body.body.length)
+                .build();
+        this.revalidated = meterRegistry.counter(REVALIDATED_COUNTER);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (request.httpMethod() != Request.HttpMethod.GET) {
+            return delegate.execute(request, options);
+        }
+        String key = request.url() + ' ' + firstHeader(request.headers(), HttpHeaders.ACCEPT);
+        CachedBody cached = cache.getIfPresent(key);
+        Response response = delegate.execute(cached != null ? withIfNoneMatch(request, cached.eTag) : request, options);
+
+        if (cached != null && response.status() == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            revalidated.increment();
+            return Response.builder()
+                    .status(HttpStatus.OK.value())
+                    .reason(HttpStatus.OK.getReasonPhrase())
+                    .headers(cached.headers)
+                    .body(cached.body)
+                    .request(request)
+                    .build();
+        }
+        String eTag = firstHeader(response.headers(), HttpHeaders.ETAG);
+        if (response.status() != HttpStatus.OK.value() || eTag == null || response.body() == null) {
+            return response;
+        }
+        byte[] body;
+        try (response) {
+            body = Util.toByteArray(response.body().asInputStream());
+        }
+        cache.put(key, new CachedBody(eTag, response.headers(), body));
+        return response.toBuilder().body(body).build();
+    }
+
+    private static Request withIfNoneMatch(Request request, String eTag) {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+        headers.put(HttpHeaders.IF_NONE_MATCH, List.of(eTag));
+        return Request.create(request.httpMethod(), request.url(), headers, request.body(), request.charset(),
+                request.requestTemplate());
+    }
+
+    private static String firstHeader(Map<String, Collection<String>> headers, String name) {
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                return header.getValue().iterator().next();
+            }
+        }
+        return null;
+    }
+
+    private static final class CachedBody {
+
+        private final String eTag;
+
+        private final Map<String, Collection<String>> headers;
+
+        private final byte[] body;
+
+        private CachedBody(String eTag, Map<String, Collection<String>> headers, byte[] body) {
+            this.eTag = eTag;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
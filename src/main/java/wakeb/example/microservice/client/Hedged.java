@@ -0,0 +1,18 @@
+package wakeb.example.microservice.client;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link BooksClient} method whose requests are hedged by {@link HedgingClient}: when no
+ * response has arrived after the usual 95th percentile latency, the request is sent a second time
+ * and the first response wins. Only for idempotent calls.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+}
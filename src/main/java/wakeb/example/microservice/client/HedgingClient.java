@@ -0,0 +1,179 @@
+package wakeb.example.microservice.client;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Feign client sending a second copy of a {@link Hedged} request when the first has not been
+ * answered within the 95th percentile of recently observed latencies. Whichever response arrives
+ * first is returned and the other one is closed, which returns its connection to the pool.
+ * A call fails only once every attempt has failed. Other requests go straight to the delegate.
+ */
+public class HedgingClient implements Client {
+
+    /**
+     * Name of the counter of requests sent a second time.
+     */
+    public static final String HEDGED_COUNTER = "books.client.hedged";
+
+    private final Client delegate;
+
+    private final Executor executor;
+
+    private final long initialDelayNanos;
+
+    private final long minDelayNanos;
+
+    private final LatencyWindow latencies = new LatencyWindow();
+
+    private final Counter hedged;
+
+    /**
+     * Creates a hedging client.
+     *
+     * @param delegate      the client performing each attempt.
+     * @param executor      the executor running the attempts, so the caller can stop waiting for the first.
+     * @param initialDelay  the hedging delay used until enough latencies have been observed.
+     * @param minDelay      the lower bound of the hedging delay.
+     * @param meterRegistry the registry receiving the hedging counter.
+     */
+    public HedgingClient(Client delegate, Executor executor, Duration initialDelay, Duration minDelay,
+                         MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.initialDelayNanos = initialDelay.toNanos();
+        this.minDelayNanos = minDelay.toNanos();
+        this.hedged = meterRegistry.counter(HEDGED_COUNTER);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!isHedged(request)) {
+            return delegate.execute(request, options);
+        }
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        submit(request, options, result, pending);
+        try {
+            return result.get(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            hedged.increment();
+            pending.incrementAndGet();
+            submit(request, options, result, pending);
+            return await(result);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request.url());
+        }
+    }
+
+    private void submit(Request request, Request.Options options, CompletableFuture<Response> result,
+                        AtomicInteger pending) {
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                Response response = delegate.execute(request, options);
+                latencies.record(System.nanoTime() - start);
+                if (!result.complete(response)) {
+                    response.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private long hedgeDelayNanos() {
+        long p95 = latencies.p95();
+        return p95 < 0 ? initialDelayNanos : Math.max(minDelayNanos, p95);
+    }
+
+    private static boolean isHedged(Request request) {
+        MethodMetadata metadata = request.requestTemplate() != null ? request.requestTemplate().methodMetadata() : null;
+        return metadata != null && metadata.method() != null && metadata.method().isAnnotationPresent(Hedged.class);
+    }
+
+    private static Response await(CompletableFuture<Response> result) throws IOException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a hedged response");
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof IOException cause) {
+            return cause;
+        }
+        if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+        }
+        return new IOException(e.getCause());
+    }
+
+    /**
+     * Sliding window over the latest latencies. The percentile is recomputed every
+     * {@value #RECOMPUTE_EVERY} samples rather than on every request.
+     */
+    private static final class LatencyWindow {
+
+        private static final int SIZE = 256;
+
+        private static final int MIN_SAMPLES = 20;
+
+        private static final int RECOMPUTE_EVERY = 16;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final long[] samples = new long[SIZE];
+
+        private int next;
+
+        private int count;
+
+        private volatile long p95 = -1;
+
+        private void record(long nanos) {
+            lock.lock();
+            try {
+                samples[next] = nanos;
+                next = (next + 1) % SIZE;
+                count = Math.min(count + 1, SIZE);
+                if (count >= MIN_SAMPLES && (p95 < 0 || next % RECOMPUTE_EVERY == 0)) {
+                    long[] sorted = Arrays.copyOf(samples, count);
+                    Arrays.sort(sorted);
+                    p95 = sorted[(int) Math.ceil(count * 0.95) - 1];
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long p95() {
+            return p95;
+        }
+    }
+}
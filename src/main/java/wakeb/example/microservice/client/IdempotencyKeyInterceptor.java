@@ -0,0 +1,24 @@
+package wakeb.example.microservice.client;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import wakeb.example.microservice.idempotency.IdempotencyKeyFilter;
+
+import java.util.UUID;
+
+/**
+ * Adds a random Idempotency-Key to POST, PUT and PATCH requests that do not carry one. Feign
+ * applies interceptors to the same template on every retry, so all attempts of a call share the
+ * key and the books service runs the write once.
+ */
+public class IdempotencyKeyInterceptor implements RequestInterceptor {
+
+    @Override
+    public void apply(RequestTemplate template) {
+        String method = template.method();
+        boolean write = "POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method);
+        if (write && !template.headers().containsKey(IdempotencyKeyFilter.IDEMPOTENCY_KEY)) {
+            template.header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, UUID.randomUUID().toString());
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package wakeb.example.microservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Application specific settings bound from the {@code books.*} properties.
+ */
+@ConfigurationProperties(prefix = "books")
+@Getter
+@Setter
+public class BookProperties {
+
+    private Batch batch = new Batch();
+
+    private Jdbc jdbc = new Jdbc();
+
+    private Search search = new Search();
+
+    private Datasource datasource = new Datasource();
+
+    private ReadModel readModel = new ReadModel();
+
+    private JsonCache jsonCache = new JsonCache();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    private Journal journal = new Journal();
+
+    private Idempotency idempotency = new Idempotency();
+
+    private Client client = new Client();
+
+    /**
+     * Settings for bulk book creation.
+     */
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /**
+         * Number of inserts sent to the database per JDBC batch.
+         */
+        private int size = 100;
+    }
+
+    /**
+     * Settings for the limiter placed in front of the JDBC connection pool.
+     */
+    @Getter
+    @Setter
+    public static class Jdbc {
+
+        /**
+         * Maximum number of connections that may be checked out at once; 0 disables the limiter.
+         */
+        private int permits = 0;
+
+        /**
+         * How long a caller waits for a permit before the connection request fails.
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Whether the connection pools are filled to their minimum idle size before the application reports ready.
+         */
+        private boolean warmUp = true;
+    }
+
+    /**
+     * Settings for the full-text index over titles and authors.
+     */
+    @Getter
+    @Setter
+    public static class Search {
+
+        /**
+         * Directory holding the index files; when empty the index is kept in memory only.
+         */
+        private String indexDirectory = "data/books-index";
+
+        /**
+         * How often pending index changes are committed to disk.
+         */
+        private Duration commitInterval = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Settings for routing read-only transactions to a replica. The replica connection itself is
+     * configured through {@code books.datasource.replica.url}, {@code username}, {@code password}
+     * and {@code hikari.*}, like {@code spring.datasource.*}.
+     */
+    @Getter
+    @Setter
+    public static class Datasource {
+
+        /**
+         * How long after a write the same client keeps reading from the primary.
+         */
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Settings for the in-memory read model serving the query side.
+     */
+    @Getter
+    @Setter
+    public static class ReadModel {
+
+        /**
+         * Whether queries are served from memory, fed by the events of the command side.
+         * Only suitable for a single instance, since each instance sees its own writes only.
+         */
+        private boolean enabled = false;
+    }
+
+    /**
+     * Settings for the cache of pre-serialized book JSON.
+     */
+    @Getter
+    @Setter
+    public static class JsonCache {
+
+        /**
+         * Maximum number of books whose JSON is kept in memory.
+         */
+        private long maximumSize = 10_000;
+    }
+
+    /**
+     * Settings for the asynchronous write-behind pipeline of book commands.
+     */
+    @Getter
+    @Setter
+    public static class WriteBehind {
+
+        /**
+         * Whether clients may ask for asynchronous processing with {@code Prefer: respond-async}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of commands waiting to be written; further commands are rejected with 503.
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * Maximum number of commands of the same kind written in one transaction.
+         */
+        private int maxBatchSize = 500;
+
+        /**
+         * File journaling accepted commands until they are written; when empty queued commands are lost on restart.
+         */
+        private String journalFile = "data/write-behind.ndjson";
+
+        /**
+         * Size above which the journal file is rewritten to hold only the commands not written yet.
+         */
+        private DataSize journalCompactionSize = DataSize.ofMegabytes(4);
+
+        /**
+         * How long the status of a command can be looked up after it was accepted.
+         */
+        private Duration statusRetention = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Settings for the append-only journal of committed book changes.
+     */
+    @Getter
+    @Setter
+    public static class Journal {
+
+        /**
+         * Whether every committed create, update and delete is appended to the journal.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory holding the segment files.
+         */
+        private String directory = "data/journal";
+
+        /**
+         * Size of each memory-mapped segment file; a new segment is started when one is full.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Number of segments kept on disk, or 0 to keep all of them. Replay needs every segment.
+         */
+        private int retainedSegments = 0;
+
+        /**
+         * How long a sync waits for more records before forcing them to disk together.
+         */
+        private Duration groupCommitDelay = Duration.ofMillis(1);
+
+        /**
+         * Whether the books table is rebuilt from the journal on startup.
+         */
+        private boolean replay = false;
+    }
+
+    /**
+     * Settings for replaying the responses of writes retried with the same Idempotency-Key.
+     */
+    @Getter
+    @Setter
+    public static class Idempotency {
+
+        /**
+         * Maximum number of keys remembered; the oldest are dropped first.
+         */
+        private int maxEntries = 10_000;
+
+        /**
+         * Number of independently locked partitions of the key store.
+         */
+        private int stripes = 16;
+
+        /**
+         * How long a response is replayed for retries of its key.
+         */
+        private Duration ttl = Duration.ofHours(24);
+
+        /**
+         * How long a retry waits for the first request with its key before giving up with 409 Conflict.
+         */
+        private Duration waitTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Largest request body buffered for hashing; larger requests are rejected with 413 Payload Too Large.
+         */
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+
+        /**
+         * Largest response kept for replay; larger responses are not kept, like server errors.
+         */
+        private DataSize maxResponseSize = DataSize.ofKilobytes(256);
+    }
+
+    /**
+     * Settings of the bundled {@code BooksClient}, used by services calling the books API.
+     */
+    @Getter
+    @Setter
+    public static class Client {
+
+        /**
+         * Base URL of the books service; the client is created only when it is set.
+         */
+        private String url;
+
+        /**
+         * Total size of the response bodies kept for revalidation with If-None-Match.
+         */
+        private DataSize responseCacheSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Delay before a hedged request is duplicated, used until enough latencies have been observed.
+         */
+        private Duration hedgeInitialDelay = Duration.ofMillis(50);
+
+        /**
+         * Lower bound of the hedging delay, which otherwise follows the observed 95th percentile latency.
+         */
+        private Duration hedgeMinDelay = Duration.ofMillis(5);
+
+        /**
+         * Wait before the first retry; later retries back off up to {@code retry-max-period}.
+         */
+        private Duration retryPeriod = Duration.ofMillis(100);
+
+        /**
+         * Longest wait between two retries.
+         */
+        private Duration retryMaxPeriod = Duration.ofSeconds(1);
+
+        /**
+         * Number of attempts per call, including the first one.
+         */
+        private int retryMaxAttempts = 3;
+    }
+}
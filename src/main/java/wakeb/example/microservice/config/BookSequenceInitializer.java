@@ -0,0 +1,76 @@
+package wakeb.example.microservice.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import wakeb.example.microservice.model.Book;
+
+/**
+ * Moves the {@code books_seq} identifier sequence past the highest stored identifier before the
+ * application accepts requests. Schemas created before identifiers were taken from the sequence
+ * hold rows numbered by the former identity column, while {@code ddl-auto=update} creates the
+ * sequence starting at 1, so new books would collide with existing ones.
+ * <p>
+ * Databases with sequences get {@code alter sequence ... restart with}; on databases without
+ * them, such as MySQL, Hibernate keeps the sequence in a one-row table whose {@code next_val}
+ * column is raised instead.
+ */
+@Component
+public class BookSequenceInitializer implements SmartInitializingSingleton {
+
+    private static final String SEQUENCE = "books_seq";
+
+    private final Logger logger = LoggerFactory.getLogger(BookSequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Dialect dialect;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jdbcTemplate         the template reading the highest identifier and moving the sequence.
+     * @param entityManagerFactory the factory whose dialect tells how the sequence is stored.
+     */
+    @Autowired
+    public BookSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    // Runs once the schema exists and before the web server starts
+    @Override
+    public void afterSingletonsInstantiated() {
+        seed();
+    }
+
+    /**
+     * Moves the sequence past the highest stored identifier if it is behind it.
+     */
+    public void seed() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from books", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // The pooled generator hands out the block ending at the sequence value
+        long restartWith = maxId + Book.ID_ALLOCATION_SIZE;
+        SequenceSupport sequences = dialect.getSequenceSupport();
+        if (sequences.supportsSequences()) {
+            Long next = jdbcTemplate.queryForObject(sequences.getSequenceNextValString(SEQUENCE), Long.class);
+            if (next != null && next < restartWith) {
+                jdbcTemplate.execute("alter sequence " + SEQUENCE + " restart with " + restartWith);
+                logger.info("Moved {} from {} to {}, past the highest book id {}", SEQUENCE, next, restartWith, maxId);
+            }
+        } else if (jdbcTemplate.update("update " + SEQUENCE + " set next_val = ? where next_val < ?",
+                restartWith, restartWith) > 0) {
+            logger.info("Moved {} to {}, past the highest book id {}", SEQUENCE, restartWith, maxId);
+        }
+    }
+}
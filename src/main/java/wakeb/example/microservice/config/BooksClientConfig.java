@@ -0,0 +1,15 @@
+package wakeb.example.microservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+import wakeb.example.microservice.client.BooksClient;
+
+/**
+ * Creates the {@link BooksClient} when {@code books.client.url} points to a books service.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "books.client", name = "url")
+@EnableFeignClients(clients = BooksClient.class)
+public class BooksClientConfig {
+}
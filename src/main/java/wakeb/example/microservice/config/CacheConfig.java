@@ -0,0 +1,57 @@
+package wakeb.example.microservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import wakeb.example.microservice.service.implementation.BookQueryServiceImpl;
+import wakeb.example.microservice.service.implementation.CoalescedLoadCountingCache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enables Spring's cache abstraction. The cache provider (Caffeine), the cache names and the
+ * size/TTL eviction policy are configured through the {@code spring.cache.*} properties.
+ * The cache interceptor runs outside the transaction interceptor, so a cache hit never opens a
+ * transaction and cache updates happen only after the transaction has committed.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    /**
+     * Name of the cache holding single books keyed by their identifier.
+     */
+    public static final String BOOKS_CACHE = "books";
+
+    /**
+     * Name of the resolver used by {@code findBookById}, counting the callers that waited on
+     * another caller's load.
+     */
+    public static final String BOOK_BY_ID_CACHE_RESOLVER = "bookByIdCacheResolver";
+
+    /**
+     * Resolves the caches of an operation from the cache manager, wrapped so that synchronized
+     * lookups served by another caller's load increment the {@code books.query.coalesced}
+     * counter tagged {@code operation=findBookById}.
+     *
+     * @param cacheManager  the cache manager holding the caches.
+     * @param meterRegistry the registry receiving the counter.
+     * @return the cache resolver.
+     */
+    @Bean(BOOK_BY_ID_CACHE_RESOLVER)
+    public CacheResolver bookByIdCacheResolver(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        Counter coalesced = meterRegistry.counter(BookQueryServiceImpl.COALESCED_COUNTER, "operation", "findBookById");
+        Map<String, Cache> caches = new ConcurrentHashMap<>();
+        return context -> context.getOperation().getCacheNames().stream()
+                .map(name -> caches.computeIfAbsent(name,
+                        key -> new CoalescedLoadCountingCache(cacheManager.getCache(key), coalesced)))
+                .toList();
+    }
+}
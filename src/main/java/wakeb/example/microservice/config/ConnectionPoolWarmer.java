@@ -0,0 +1,76 @@
+package wakeb.example.microservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opens the minimum idle number of connections of every Hikari pool on startup, before the
+ * application reports ready. Hikari otherwise opens them in the background after the first one,
+ * so the first requests after a deployment would wait for new connections.
+ */
+@Component
+@ConditionalOnProperty(prefix = "books.jdbc", name = "warm-up", havingValue = "true", matchIfMissing = true)
+public class ConnectionPoolWarmer implements ApplicationRunner {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final Logger logger = LoggerFactory.getLogger(ConnectionPoolWarmer.class);
+
+    private final DataSource dataSource;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param dataSource the application's data source, possibly wrapped by {@link DataSourceConfig}.
+     */
+    @Autowired
+    public ConnectionPoolWarmer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        for (HikariDataSource pool : DataSourceConfig.hikariPools(dataSource)) {
+            long start = System.nanoTime();
+            int opened = warmUp(pool);
+            logger.info("Opened {} connections of pool {} in {} ms",
+                    opened, pool.getPoolName(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Checks out the pool's minimum idle number of connections at once, which makes the pool
+     * open any that are missing, then returns them all.
+     */
+    private static int warmUp(HikariDataSource pool) throws SQLException {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            // The pool is entered directly, so a permit limit below the pool size does not block the warm-up.
+            // The first checkout starts the pool, which resolves defaults such as the minimum idle size.
+            do {
+                Connection connection = pool.getConnection();
+                connections.add(connection);
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Pool " + pool.getPoolName() + " handed out an invalid connection");
+                }
+            } while (connections.size() < pool.getMinimumIdle());
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return connections.size();
+    }
+}
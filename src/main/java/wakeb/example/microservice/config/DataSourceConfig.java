@@ -0,0 +1,146 @@
+package wakeb.example.microservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the application's {@link DataSource}:
+ * <ul>
+ *     <li>in a {@link PermitLimitedDataSource} when {@code books.jdbc.permits} is greater than zero;</li>
+ *     <li>in a {@link ReadReplicaRoutingDataSource} when {@code books.datasource.replica.url} is set,
+ *     the application's data source becoming the primary. Each database gets its own limiter.</li>
+ * </ul>
+ * The Hikari pools behind the wrappers publish the {@code hikaricp.*} metrics, tagged by pool name.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Post-processor applying the wrappers. It is declared static and binds its settings
+     * directly from the environment because it is created before regular beans.
+     *
+     * @param environment the environment holding the {@code books.jdbc.*} and
+     *                    {@code books.datasource.replica.*} properties.
+     * @return the post-processor.
+     */
+    @Bean
+    public static BeanPostProcessor dataSourcePostProcessor(Environment environment) {
+        return new DataSourcePostProcessor(Binder.get(environment));
+    }
+
+    /**
+     * Binds the {@code hikaricp.*} metrics of every pool behind the application's data sources.
+     * Spring Boot only finds the pool a data source unwraps to, which is the primary one when
+     * replicas are routed to, so the replica pool is bound here.
+     *
+     * @param dataSources the application's data sources.
+     * @return the binder.
+     */
+    @Bean
+    public MeterBinder hikariPoolMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream().flatMap(dataSource -> hikariPools(dataSource).stream())
+                .filter(pool -> pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null)
+                .forEach(pool -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+
+    /**
+     * Returns the Hikari pools behind a data source, looking through the wrappers applied here.
+     *
+     * @param dataSource the data source, possibly wrapped.
+     * @return the pools, the primary one first; empty if the data source is not backed by Hikari.
+     */
+    public static List<HikariDataSource> hikariPools(DataSource dataSource) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        collectHikariPools(dataSource, pools);
+        return pools;
+    }
+
+    private static void collectHikariPools(DataSource dataSource, List<HikariDataSource> pools) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            pools.add(hikari);
+        } else if (dataSource instanceof DelegatingDataSource delegating && delegating.getTargetDataSource() != null) {
+            collectHikariPools(delegating.getTargetDataSource(), pools);
+        } else if (dataSource instanceof ReadReplicaRoutingDataSource routing) {
+            collectHikariPools(routing.getResolvedDataSources().get(ReadReplicaRoutingDataSource.Route.PRIMARY), pools);
+            collectHikariPools(routing.getResolvedDataSources().get(ReadReplicaRoutingDataSource.Route.REPLICA), pools);
+        }
+    }
+
+    private static final class DataSourcePostProcessor implements DestructionAwareBeanPostProcessor {
+
+        private final Binder binder;
+
+        private final BookProperties.Jdbc jdbc;
+
+        private final Map<String, HikariDataSource> replicas = new ConcurrentHashMap<>();
+
+        private DataSourcePostProcessor(Binder binder) {
+            this.binder = binder;
+            this.jdbc = binder.bind("books.jdbc", BookProperties.Jdbc.class).orElseGet(BookProperties.Jdbc::new);
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)
+                    || bean instanceof PermitLimitedDataSource || bean instanceof LazyConnectionDataSourceProxy) {
+                return bean;
+            }
+            DataSource primary = limit(dataSource);
+            DataSourceProperties replicaProperties = binder.bind("books.datasource.replica", DataSourceProperties.class)
+                    .orElse(null);
+            if (replicaProperties == null || replicaProperties.getUrl() == null || replicaProperties.getUrl().isBlank()) {
+                return primary;
+            }
+            HikariDataSource replica = createReplica(replicaProperties);
+            replicas.put(beanName, replica);
+            // The lazy proxy defers the routing decision until the transaction is known to be read-only
+            return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primary, limit(replica)));
+        }
+
+        @Override
+        public void postProcessBeforeDestruction(Object bean, String beanName) {
+            HikariDataSource replica = replicas.remove(beanName);
+            if (replica != null) {
+                replica.close();
+            }
+        }
+
+        @Override
+        public boolean requiresDestruction(Object bean) {
+            return bean instanceof DataSource;
+        }
+
+        private DataSource limit(DataSource dataSource) {
+            return jdbc.getPermits() > 0
+                    ? new PermitLimitedDataSource(dataSource, jdbc.getPermits(), jdbc.getAcquireTimeout())
+                    : dataSource;
+        }
+
+        private HikariDataSource createReplica(DataSourceProperties properties) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            replica.setPoolName("replica");
+            replica.setReadOnly(true);
+            // Pool settings such as maximum-pool-size come from books.datasource.replica.hikari.*
+            binder.bind("books.datasource.replica.hikari", Bindable.ofInstance(replica));
+            return replica;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package wakeb.example.microservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import wakeb.example.microservice.idempotency.IdempotencyKeyFilter;
+import wakeb.example.microservice.idempotency.IdempotencyStore;
+
+/**
+ * Registers the {@link IdempotencyKeyFilter} on the book endpoints, backed by a store sized
+ * from {@code books.idempotency.*}.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    /**
+     * Store of idempotency keys and the responses they replay.
+     *
+     * @param bookProperties the application settings, providing the store bounds and TTL.
+     * @return the store.
+     */
+    @Bean
+    public IdempotencyStore idempotencyStore(BookProperties bookProperties) {
+        BookProperties.Idempotency idempotency = bookProperties.getIdempotency();
+        return new IdempotencyStore(idempotency.getMaxEntries(), idempotency.getStripes(), idempotency.getTtl());
+    }
+
+    /**
+     * Filter replaying the responses of retried writes, limited to the book endpoints.
+     *
+     * @param store             the store of keys and captured responses.
+     * @param bookProperties    the application settings, providing the wait timeout and size limits.
+     * @param exceptionResolver the resolver rendering the filter's errors as problem details.
+     * @param meterRegistry     the registry receiving the replay metrics.
+     * @return the filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean<IdempotencyKeyFilter> idempotencyKeyFilter(
+            IdempotencyStore store, BookProperties bookProperties,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+            MeterRegistry meterRegistry) {
+        BookProperties.Idempotency idempotency = bookProperties.getIdempotency();
+        IdempotencyKeyFilter filter = new IdempotencyKeyFilter(store, idempotency.getWaitTimeout(),
+                idempotency.getMaxBodySize().toBytes(), idempotency.getMaxResponseSize().toBytes(),
+                exceptionResolver, meterRegistry);
+        FilterRegistrationBean<IdempotencyKeyFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/books", "/api/books/*");
+        return registration;
+    }
+}
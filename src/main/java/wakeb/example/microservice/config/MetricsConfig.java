@@ -0,0 +1,35 @@
+package wakeb.example.microservice.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics configuration. HTTP endpoints and repository queries are timed by Spring Boot
+ * out of the box; this adds support for {@link io.micrometer.core.annotation.Timed} on services.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Name of the timer recorded for every service method call.
+     */
+    public static final String SERVICE_TIMER = "books.service";
+
+    /**
+     * Name of the counter incremented for every error response, tagged by error code.
+     */
+    public static final String EXCEPTION_COUNTER = "books.exceptions";
+
+    /**
+     * Aspect recording a timer for methods of classes annotated with {@code @Timed}.
+     *
+     * @param meterRegistry the registry the timers are recorded in.
+     * @return the aspect.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
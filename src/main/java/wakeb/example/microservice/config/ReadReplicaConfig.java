@@ -0,0 +1,27 @@
+package wakeb.example.microservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Web side of read replica routing, active when {@code books.datasource.replica.url} is set.
+ * The data source itself is wrapped by {@link DataSourceConfig}; this configuration adds the
+ * {@link ReadYourWritesFilter}, which keeps clients that just wrote on the primary for
+ * {@code books.datasource.read-your-writes-window}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "books.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    /**
+     * Filter pinning recent writers to the primary.
+     *
+     * @param bookProperties the application settings, providing the stickiness window.
+     * @return the filter.
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(BookProperties bookProperties) {
+        return new ReadYourWritesFilter(bookProperties.getDatasource().getReadYourWritesWindow());
+    }
+}
@@ -0,0 +1,85 @@
+package wakeb.example.microservice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link DataSource} that sends read-only transactions to a replica and everything else to
+ * the primary. The route is decided when the first statement needs a physical connection, so
+ * this data source must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; otherwise the
+ * connection would be taken before the transaction is marked read-only.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The database a connection is taken from.
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    /**
+     * Creates a routing data source over the given databases.
+     *
+     * @param primary the database receiving writes and non read-only transactions.
+     * @param replica the database receiving read-only transactions.
+     */
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        targets.put(Route.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Returns the database the current thread would be routed to.
+     *
+     * @return {@link Route#REPLICA} inside a read-only transaction that is not pinned to the primary,
+     * {@link Route#PRIMARY} otherwise.
+     */
+    public static Route currentRoute() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PRIMARY_PINNED.get() == null
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+
+    /**
+     * Returns the database a read-only transaction started by the current thread would be routed to.
+     * Unlike {@link #currentRoute()}, it can be called before the transaction begins.
+     *
+     * @return {@link Route#PRIMARY} if the thread is pinned to the primary, {@link Route#REPLICA} otherwise.
+     */
+    public static Route readOnlyRoute() {
+        return PRIMARY_PINNED.get() == null ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    /**
+     * Sends every transaction of the current thread to the primary, including read-only ones,
+     * until {@link #unpin()} is called. Used to let clients read their own writes.
+     */
+    public static void pinToPrimary() {
+        PRIMARY_PINNED.set(Boolean.TRUE);
+    }
+
+    /**
+     * Restores the default routing for the current thread.
+     */
+    public static void unpin() {
+        PRIMARY_PINNED.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+}
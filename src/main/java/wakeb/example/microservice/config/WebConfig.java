@@ -0,0 +1,89 @@
+package wakeb.example.microservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import wakeb.example.microservice.serialization.BookJsonCache;
+import wakeb.example.microservice.serialization.BookJsonHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * Registers the converter writing book responses from pre-serialized JSON ahead of the regular
+ * Jackson converter, which still handles request bodies and every other response type.
+ * Clients sending {@code Accept: application/cbor} or {@code application/x-jackson-smile} get
+ * the same documents in those binary formats instead, written with the application's Jackson
+ * settings and serializers; both formats are also accepted as request bodies. Book responses
+ * therefore carry {@code Vary: Accept}, so shared caches keep one entry per format.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final BookJsonCache bookJsonCache;
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public WebConfig(BookJsonCache bookJsonCache, ObjectMapper objectMapper) {
+        this.bookJsonCache = bookJsonCache;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * CBOR converter configured like the JSON one. It replaces Spring MVC's default CBOR
+     * converter, which would ignore the application's Jackson settings.
+     *
+     * @param builder Spring Boot's Jackson builder, carrying the application's modules and features.
+     * @return the converter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Smile converter configured like the JSON one.
+     *
+     * @param builder Spring Boot's Jackson builder, carrying the application's modules and features.
+     * @return the converter.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new BookJsonHttpMessageConverter(bookJsonCache, objectMapper));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new VaryByAcceptInterceptor()).addPathPatterns("/api/books", "/api/books/**");
+    }
+
+    /**
+     * Adds {@code Vary: Accept} before the handler runs, so 304 responses carry it as well.
+     */
+    private static final class VaryByAcceptInterceptor implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            return true;
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package wakeb.example.microservice.controller;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import wakeb.example.microservice.dto.book.BookBatchResultDTO;
+import wakeb.example.microservice.dto.book.BookCommandStatusDTO;
 import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.exception.ExceptionMessagesEnum;
+import wakeb.example.microservice.exception.custom.BookCommandNotFoundException;
 import wakeb.example.microservice.service.interfaces.BookCommandService;
+import wakeb.example.microservice.writebehind.BookWriteBehindQueue;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * Controller for handling book command operations such as create, update, and delete.
  */
@@ -15,44 +26,103 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/books")
 public class BookCommandController {
 
+    /**
+     * Request header through which clients ask for asynchronous processing (RFC 7240).
+     */
+    static final String PREFER = "Prefer";
+
+    /**
+     * Response header confirming that a preference was honoured (RFC 7240).
+     */
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+    static final String RESPOND_ASYNC = "respond-async";
+
     private final BookCommandService bookCommandService;
 
+    private final BookWriteBehindQueue writeBehindQueue;
+
     /**
      * Constructor for injecting the BookCommandService.
      *
      * @param bookCommandService the service handling book command logic.
+     * @param writeBehindQueue   the queue of asynchronous commands, available when write-behind is enabled.
      */
     @Autowired
-    public BookCommandController(BookCommandService bookCommandService) {
+    public BookCommandController(BookCommandService bookCommandService,
+                                 ObjectProvider<BookWriteBehindQueue> writeBehindQueue) {
         this.bookCommandService = bookCommandService;
+        this.writeBehindQueue = writeBehindQueue.getIfAvailable();
     }
 
     /**
-     * Creates a new book.
+     * Creates a new book. With write-behind enabled and {@code Prefer: respond-async}, the book
+     * is queued instead and the command status is returned with HTTP status ACCEPTED.
      *
      * @param bookDTO the data transfer object containing book details.
-     * @return the ResponseEntity containing the created book details and HTTP status CREATED.
+     * @param prefer  the {@code Prefer} request header, if any.
+     * @return the ResponseEntity containing the created book details and HTTP status CREATED,
+     * or the status of the queued command.
      */
     @PostMapping
-    public ResponseEntity<BookDTO> createBook(@Valid @RequestBody BookDTO bookDTO) {
+    public ResponseEntity<?> createBook(@Valid @RequestBody BookDTO bookDTO,
+                                        @RequestHeader(value = PREFER, required = false) String prefer) {
+        if (respondAsync(prefer)) {
+            return accepted(writeBehindQueue.submitCreate(bookDTO));
+        }
         BookDTO createdBook = bookCommandService.createBook(bookDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdBook);
     }
 
+    /**
+     * Creates many books in a single request. Every item is validated like a single create;
+     * items with a title that is already taken are reported as duplicates instead of failing
+     * the whole request.
+     *
+     * @param bookDTOs the data transfer objects containing the details of each book.
+     * @return the ResponseEntity containing one result per submitted item.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookBatchResultDTO>> createBooks(@RequestBody @NotEmpty List<@Valid BookDTO> bookDTOs) {
+        List<BookBatchResultDTO> results = bookCommandService.createBooks(bookDTOs);
+        return ResponseEntity.ok(results);
+    }
 
     /**
-     * Updates an existing book.
+     * Updates an existing book. With write-behind enabled and {@code Prefer: respond-async}, the
+     * update is queued instead and the command status is returned with HTTP status ACCEPTED.
      *
      * @param id the unique identifier of the book to update.
      * @param bookDTO the data transfer object containing updated book details.
-     * @return the ResponseEntity containing the updated book details.
+     * @param prefer  the {@code Prefer} request header, if any.
+     * @return the ResponseEntity containing the updated book details, or the status of the queued command.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<BookDTO> updateBook(@PathVariable Long id, @Valid @RequestBody BookDTO bookDTO) {
+    public ResponseEntity<?> updateBook(@PathVariable Long id, @Valid @RequestBody BookDTO bookDTO,
+                                        @RequestHeader(value = PREFER, required = false) String prefer) {
+        if (respondAsync(prefer)) {
+            return accepted(writeBehindQueue.submitUpdate(id, bookDTO));
+        }
         BookDTO updatedBook = bookCommandService.updateBook(id, bookDTO);
         return ResponseEntity.ok(updatedBook);
     }
 
+    /**
+     * Retrieves the status of a command accepted for asynchronous processing.
+     *
+     * @param commandId the identifier returned when the command was accepted.
+     * @return the ResponseEntity containing the command status.
+     * @throws BookCommandNotFoundException if the command is unknown or its status has expired.
+     */
+    @GetMapping("/commands/{commandId}")
+    public ResponseEntity<BookCommandStatusDTO> getCommandStatus(@PathVariable String commandId) {
+        BookCommandStatusDTO status = writeBehindQueue == null ? null : writeBehindQueue.findStatus(commandId).orElse(null);
+        if (status == null) {
+            throw new BookCommandNotFoundException(ExceptionMessagesEnum.BOOK_COMMAND_NOT_FOUND.getMessage());
+        }
+        return ResponseEntity.ok(status);
+    }
+
     /**
      * Deletes an existing book.
      *
@@ -64,4 +134,15 @@ public class BookCommandController {
         bookCommandService.deleteBook(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private boolean respondAsync(String prefer) {
+        return writeBehindQueue != null && prefer != null && prefer.toLowerCase(Locale.ROOT).contains(RESPOND_ASYNC);
+    }
+
+    private static ResponseEntity<BookCommandStatusDTO> accepted(BookCommandStatusDTO status) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/books/commands/" + status.getCommandId()))
+                .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                .body(status);
+    }
+}
@@ -1,11 +1,25 @@
 package wakeb.example.microservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import wakeb.example.microservice.dto.book.BookCatalogVersionDTO;
 import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookETags;
+import wakeb.example.microservice.dto.book.BookLookupDTO;
+import wakeb.example.microservice.dto.book.BookPageDTO;
+import wakeb.example.microservice.dto.book.BookSearchCriteriaDTO;
+import wakeb.example.microservice.dto.book.BookVersionDTO;
 import wakeb.example.microservice.service.interfaces.BookQueryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -17,37 +31,151 @@ public class BookQueryController {
 
     private final BookQueryService bookQueryService;
 
+    private final ObjectMapper objectMapper;
+
 
     /**
      * Constructor for injecting the BookQueryService.
      *
      * @param bookQueryService the service handling book query logic.
+     * @param objectMapper     the mapper used to write streamed records.
      */
     @Autowired
-    public BookQueryController(BookQueryService bookQueryService) {
+    public BookQueryController(BookQueryService bookQueryService, ObjectMapper objectMapper) {
         this.bookQueryService = bookQueryService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Retrieves a book by its unique identifier.
+     * Retrieves a book by its unique identifier. The response carries a weak ETag and a
+     * Last-Modified header derived from the book version. Conditional requests are checked
+     * against the version alone and answered with 304 Not Modified without loading the book.
      *
-     * @param id the unique identifier of the book.
-     * @return the ResponseEntity containing the found book details.
+     * @param id      the unique identifier of the book.
+     * @param request the current request, carrying the conditional headers.
+     * @return the ResponseEntity containing the found book details, or {@code null} once a 304 has been set.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id, WebRequest request) {
+        if (isConditional(request)) {
+            BookVersionDTO current = bookQueryService.findBookVersion(id);
+            if (request.checkNotModified(BookETags.forBook(current.getId(), current.getVersion()),
+                    BookETags.toEpochMilli(current.getLastModified()))) {
+                return null;
+            }
+        }
         BookDTO book = bookQueryService.findBookById(id);
-        return ResponseEntity.ok(book);
+        return okWithValidators(BookETags.forBook(book.getId(), book.getVersion()), book.getLastModified())
+                .body(book);
     }
 
     /**
-     * Retrieves a list of all books.
+     * Retrieves a list of all books. The ETag is computed from an aggregate over the catalog,
+     * so an unchanged catalog is answered with 304 Not Modified without reading any book.
      *
-     * @return the ResponseEntity containing a list of all books.
+     * @param request the current request, carrying the conditional headers.
+     * @return the ResponseEntity containing a list of all books, or {@code null} once a 304 has been set.
      */
     @GetMapping
-    public ResponseEntity<List<BookDTO>> getAllBooks() {
+    public ResponseEntity<List<BookDTO>> getAllBooks(WebRequest request) {
+        // Read before the books, so the tag can only be older than the body and never hides a change
+        BookCatalogVersionDTO catalog = bookQueryService.findCatalogVersion();
+        String eTag = BookETags.forCatalog(catalog);
+        if (request.checkNotModified(eTag, BookETags.toEpochMilli(catalog.getLastModified()))) {
+            return null;
+        }
         List<BookDTO> books = bookQueryService.findAllBooks();
+        return okWithValidators(eTag, catalog.getLastModified()).body(books);
+    }
+
+    /**
+     * Retrieves the books with the given identifiers in one request. This mode is selected
+     * whenever the {@code ids} parameter is present without {@code limit}, e.g. {@code ?ids=1,2,3}.
+     *
+     * @param ids the identifiers of the books, in the order the books are returned.
+     * @return the ResponseEntity containing the books found and the identifiers without a book.
+     */
+    @GetMapping(params = {"ids", "!limit"})
+    public ResponseEntity<BookLookupDTO> getBooksByIds(@RequestParam List<Long> ids) {
+        BookLookupDTO lookup = bookQueryService.findBooksByIds(ids);
+        return ResponseEntity.ok(lookup);
+    }
+
+    /**
+     * Retrieves a page of books using cursor (keyset) pagination. This mode is selected
+     * whenever the {@code limit} parameter is present, even alongside {@code ids}.
+     *
+     * @param after the opaque cursor returned with the previous page; omit it for the first page.
+     * @param limit the maximum number of books to return.
+     * @return the ResponseEntity containing the page of books and the cursor of the next page.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<BookPageDTO> getBooksPage(@RequestParam(required = false) String after,
+                                                    @RequestParam int limit) {
+        BookPageDTO page = bookQueryService.findBooksPage(after, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Searches books by author, title prefix and publication date range. All filters are
+     * optional and combined with a logical AND; results are paged with a cursor.
+     *
+     * @param criteria the search criteria bound from the {@code author}, {@code titlePrefix},
+     *                 {@code publishedFrom} and {@code publishedTo} query parameters.
+     * @param after    the opaque cursor returned with the previous page; omit it for the first page.
+     * @param limit    the maximum number of books to return.
+     * @return the ResponseEntity containing the page of matching books.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<BookPageDTO> searchBooks(BookSearchCriteriaDTO criteria,
+                                                   @RequestParam(required = false) String after,
+                                                   @RequestParam(defaultValue = "20") int limit) {
+        BookPageDTO page = bookQueryService.searchBooks(criteria, after, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Searches book titles and authors for free text. Every word must match a title or author
+     * word or its beginning; results are ranked by relevance.
+     *
+     * @param q    the free-text query.
+     * @param page the zero-based page number.
+     * @param size the number of results per page.
+     * @return the ResponseEntity containing the matching books, best match first.
+     */
+    @GetMapping("/search/text")
+    public ResponseEntity<List<BookDTO>> searchBooksByText(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        List<BookDTO> books = bookQueryService.searchBooksByText(q, page, size);
         return ResponseEntity.ok(books);
     }
-}
\ No newline at end of file
+
+    /**
+     * Streams the whole catalog as newline-delimited JSON, one book per line. Records are
+     * written to the response as they are read from the database instead of being collected first.
+     *
+     * @param response the servlet response the records are written to.
+     * @throws IOException if writing to the response fails.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportBooks(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // Lines are delimited explicitly, so no separator is needed between root-level values
+            generator.setRootValueSeparator(null);
+            bookQueryService.writeAllBooks(generator);
+        }
+    }
+
+    private static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    private static ResponseEntity.BodyBuilder okWithValidators(String eTag, Instant lastModified) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(eTag);
+        return lastModified == null ? builder : builder.lastModified(lastModified);
+    }
+}
@@ -0,0 +1,42 @@
+package wakeb.example.microservice.dto.book;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Outcome of a single item of a bulk create or update request.
+ * The {@code index} refers to the position of the item in the submitted array.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+public class BookBatchResultDTO {
+
+    /**
+     * Status of a single bulk item.
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DUPLICATE,
+        NOT_FOUND
+    }
+
+    private int index;
+
+    private Status status;
+
+    private Long id;
+
+    private String title;
+
+    public BookBatchResultDTO() {}
+
+    public BookBatchResultDTO(int index, Status status, Long id, String title) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.title = title;
+    }
+}
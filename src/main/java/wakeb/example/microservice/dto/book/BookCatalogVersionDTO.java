@@ -0,0 +1,29 @@
+package wakeb.example.microservice.dto.book;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Aggregate validators of the whole catalog. Any insert, update or delete changes at least
+ * one of the book count, the sum of book versions or the latest modification time.
+ */
+@Getter
+@Setter
+public class BookCatalogVersionDTO {
+
+    private long count;
+
+    private long versionSum;
+
+    private Instant lastModified;
+
+    public BookCatalogVersionDTO() {}
+
+    public BookCatalogVersionDTO(Long count, Long versionSum, Instant lastModified) {
+        this.count = count == null ? 0 : count;
+        this.versionSum = versionSum == null ? 0 : versionSum;
+        this.lastModified = lastModified;
+    }
+}
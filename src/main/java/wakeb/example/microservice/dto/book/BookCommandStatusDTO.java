@@ -0,0 +1,42 @@
+package wakeb.example.microservice.dto.book;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Progress of a book command accepted for asynchronous processing.
+ * The {@code bookId} is known once a create has been written, or from the start for an update;
+ * the {@code detail} explains why a command failed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+public class BookCommandStatusDTO {
+
+    /**
+     * Processing state of an asynchronous command.
+     */
+    public enum Status {
+        PENDING,
+        APPLIED,
+        FAILED
+    }
+
+    private String commandId;
+
+    private Status status;
+
+    private Long bookId;
+
+    private String detail;
+
+    public BookCommandStatusDTO() {}
+
+    public BookCommandStatusDTO(String commandId, Status status, Long bookId, String detail) {
+        this.commandId = commandId;
+        this.status = status;
+        this.bookId = bookId;
+        this.detail = detail;
+    }
+}
@@ -0,0 +1,46 @@
+package wakeb.example.microservice.dto.book;
+
+import wakeb.example.microservice.exception.ExceptionMessagesEnum;
+import wakeb.example.microservice.exception.custom.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Utility class for encoding and decoding the opaque cursors used by keyset pagination.
+ * A cursor wraps the identifier of the last book returned on a page.
+ */
+public class BookCursorCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Encodes the identifier of the last book on a page into an opaque cursor.
+     *
+     * @param lastId the identifier of the last book on the page.
+     * @return the URL-safe cursor string.
+     */
+    public static String encode(long lastId) {
+        return ENCODER.encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(lastId).array());
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode(long)}.
+     *
+     * @param cursor the cursor received from the client.
+     * @return the identifier of the last book seen by the client.
+     * @throws InvalidCursorException if the cursor is malformed.
+     */
+    public static long decode(String cursor) {
+        try {
+            byte[] bytes = DECODER.decode(cursor);
+            if (bytes.length != Long.BYTES) {
+                throw new InvalidCursorException(ExceptionMessagesEnum.INVALID_CURSOR.getMessage());
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(ExceptionMessagesEnum.INVALID_CURSOR.getMessage());
+        }
+    }
+}
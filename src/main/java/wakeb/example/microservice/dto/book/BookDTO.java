@@ -1,10 +1,14 @@
 package wakeb.example.microservice.dto.book;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Getter
@@ -23,6 +27,15 @@ public class BookDTO {
 
     private LocalDate publicationDate;
 
+    // Assigned by the server; ignored when sent by clients
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
+
+    // Exposed through the Last-Modified header rather than the body
+    @JsonIgnore
+    private Instant lastModified;
+
     public BookDTO() {}
 
     public BookDTO(Long id, String title, String author, LocalDate publicationDate) {
@@ -20,6 +20,8 @@ public class BookDTOMapper {
         dto.setTitle(entity.getTitle());
         dto.setAuthor(entity.getAuthor());
         dto.setPublicationDate(entity.getPublicationDate());
+        dto.setVersion(entity.getVersion());
+        dto.setLastModified(entity.getLastModified());
         return dto;
     }
 
@@ -0,0 +1,48 @@
+package wakeb.example.microservice.dto.book;
+
+import java.time.Instant;
+
+/**
+ * Utility class building the entity tags and Last-Modified timestamps used for conditional
+ * requests on books. Tags are derived from versions only, never from the payload, so they can
+ * be checked without loading or serializing a book.
+ */
+public class BookETags {
+
+    /**
+     * Builds the weak entity tag of a single book. The same version is sent as JSON, CBOR or
+     * Smile depending on the Accept header, so the tag only vouches for the content, not for
+     * the bytes of one representation.
+     *
+     * @param id      the identifier of the book.
+     * @param version the version of the book.
+     * @return the quoted entity tag, prefixed with {@code W/}.
+     */
+    public static String forBook(Long id, Long version) {
+        return "W/\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Builds the weak entity tag of the whole catalog. The catalog is sent gzipped or in binary
+     * formats depending on the request, so its tag only vouches for the content; Tomcat also
+     * refuses to compress responses carrying a strong tag.
+     *
+     * @param catalog the aggregate validators of the catalog.
+     * @return the quoted entity tag, prefixed with {@code W/}.
+     */
+    public static String forCatalog(BookCatalogVersionDTO catalog) {
+        return "W/\"" + Long.toHexString(catalog.getCount())
+                + "-" + Long.toHexString(catalog.getVersionSum())
+                + "-" + Long.toHexString(toEpochMilli(catalog.getLastModified())) + "\"";
+    }
+
+    /**
+     * Converts a modification time to the form expected by conditional request checks.
+     *
+     * @param lastModified the modification time, possibly {@code null}.
+     * @return the epoch milliseconds, or {@code -1} when unknown.
+     */
+    public static long toEpochMilli(Instant lastModified) {
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+}
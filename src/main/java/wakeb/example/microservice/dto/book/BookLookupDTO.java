@@ -0,0 +1,26 @@
+package wakeb.example.microservice.dto.book;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Result of a batch lookup by identifier. The books found are listed in the order their
+ * identifiers were requested; identifiers without a book are reported in {@code missingIds}.
+ */
+@Getter
+@Setter
+public class BookLookupDTO {
+
+    private List<BookDTO> items;
+
+    private List<Long> missingIds;
+
+    public BookLookupDTO() {}
+
+    public BookLookupDTO(List<BookDTO> items, List<Long> missingIds) {
+        this.items = items;
+        this.missingIds = missingIds;
+    }
+}
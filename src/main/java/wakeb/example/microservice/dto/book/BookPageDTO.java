@@ -0,0 +1,29 @@
+package wakeb.example.microservice.dto.book;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A single page of books returned by cursor (keyset) pagination.
+ * The {@code nextCursor} is opaque to clients and must be passed back as the {@code after}
+ * parameter to fetch the following page. It is omitted once the last page has been reached.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+public class BookPageDTO {
+
+    private List<BookDTO> items;
+
+    private String nextCursor;
+
+    public BookPageDTO() {}
+
+    public BookPageDTO(List<BookDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,35 @@
+package wakeb.example.microservice.dto.book;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters of a book search. Criteria left {@code null} are not applied;
+ * the ones that are set are combined with a logical AND.
+ */
+@Getter
+@Setter
+public class BookSearchCriteriaDTO {
+
+    private String author;
+
+    private String titlePrefix;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate publishedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate publishedTo;
+
+    public BookSearchCriteriaDTO() {}
+
+    public BookSearchCriteriaDTO(String author, String titlePrefix, LocalDate publishedFrom, LocalDate publishedTo) {
+        this.author = author;
+        this.titlePrefix = titlePrefix;
+        this.publishedFrom = publishedFrom;
+        this.publishedTo = publishedTo;
+    }
+}
@@ -0,0 +1,29 @@
+package wakeb.example.microservice.dto.book;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * The validators of a single book: its version and last modification time.
+ * Loaded on its own to answer conditional requests without reading the whole book.
+ */
+@Getter
+@Setter
+public class BookVersionDTO {
+
+    private Long id;
+
+    private Long version;
+
+    private Instant lastModified;
+
+    public BookVersionDTO() {}
+
+    public BookVersionDTO(Long id, Long version, Instant lastModified) {
+        this.id = id;
+        this.version = version;
+        this.lastModified = lastModified;
+    }
+}
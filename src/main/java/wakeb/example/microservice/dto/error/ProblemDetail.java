@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.http.HttpStatus;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,6 +19,9 @@ import java.util.List;
 @Setter
 public class ProblemDetail {
 
+    // Resolved once: LocalDateTime.now(CLOCK) looks up and copies the default time zone on every call
+    private static final Clock CLOCK = Clock.systemDefaultZone();
+
     @JsonProperty("type")
     private String type;
 
@@ -46,7 +50,7 @@ public class ProblemDetail {
      * Default constructor that initializes the timestamp to the current time.
      */
     public ProblemDetail() {
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = LocalDateTime.now(CLOCK);
     }
 
     /**
@@ -67,7 +71,7 @@ public class ProblemDetail {
         this.detail = detail;
         this.instance = instance;
         this.errors = errors;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = LocalDateTime.now(CLOCK);
     }
 
     /**
@@ -1,6 +1,7 @@
 package wakeb.example.microservice.dto.error;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
@@ -29,10 +30,7 @@ public class ProblemDetailMapper {
                                                 WebRequest request,
                                                 List<String> errors,
                                                 String errorCode) {
-        String instance = (request != null)
-                ? request.getDescription(false).replace("uri=", "")
-                : "";
-        return new ProblemDetail(type, title, status, detail, instance, errors, errorCode);
+        return new ProblemDetail(type, title, status, detail, toInstance(request), errors, errorCode);
     }
 
     /**
@@ -52,4 +50,11 @@ public class ProblemDetailMapper {
                                                 WebRequest request) {
         return toProblemDetail(type, title, status, detail, request, null, null);
     }
-}
\ No newline at end of file
+
+    private static String toInstance(WebRequest request) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            return servletRequest.getRequest().getRequestURI();
+        }
+        return (request != null) ? request.getDescription(false).replace("uri=", "") : "";
+    }
+}
@@ -0,0 +1,23 @@
+package wakeb.example.microservice.event;
+
+import lombok.Getter;
+import wakeb.example.microservice.dto.book.BookDTO;
+
+/**
+ * Published when a book has been created.
+ */
+@Getter
+public class BookCreatedEvent extends BookEvent {
+
+    private final BookDTO book;
+
+    /**
+     * Constructs a new event.
+     *
+     * @param book the created book, as stored.
+     */
+    public BookCreatedEvent(BookDTO book) {
+        super(book.getId());
+        this.book = book;
+    }
+}
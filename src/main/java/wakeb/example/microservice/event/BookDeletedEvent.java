@@ -0,0 +1,16 @@
+package wakeb.example.microservice.event;
+
+/**
+ * Published when a book has been deleted.
+ */
+public class BookDeletedEvent extends BookEvent {
+
+    /**
+     * Constructs a new event.
+     *
+     * @param bookId the identifier of the deleted book.
+     */
+    public BookDeletedEvent(Long bookId) {
+        super(bookId);
+    }
+}
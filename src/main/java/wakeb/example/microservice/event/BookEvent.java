@@ -0,0 +1,29 @@
+package wakeb.example.microservice.event;
+
+import lombok.Getter;
+
+/**
+ * Base class of the domain events published by the command side whenever a book changes.
+ * Listeners receive them once the change has been committed.
+ */
+@Getter
+public abstract class BookEvent {
+
+    private final Long bookId;
+
+    /**
+     * Value of {@link System#nanoTime()} when the change was made, used to measure how long
+     * the event took to reach its consumers.
+     */
+    private final long createdNanos;
+
+    /**
+     * Constructs a new event.
+     *
+     * @param bookId the identifier of the changed book.
+     */
+    protected BookEvent(Long bookId) {
+        this.bookId = bookId;
+        this.createdNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,23 @@
+package wakeb.example.microservice.event;
+
+import lombok.Getter;
+import wakeb.example.microservice.dto.book.BookDTO;
+
+/**
+ * Published when a book has been updated.
+ */
+@Getter
+public class BookUpdatedEvent extends BookEvent {
+
+    private final BookDTO book;
+
+    /**
+     * Constructs a new event.
+     *
+     * @param book the updated book, as stored.
+     */
+    public BookUpdatedEvent(BookDTO book) {
+        super(book.getId());
+        this.book = book;
+    }
+}
@@ -9,7 +9,16 @@ import lombok.Getter;
 public enum ExceptionMessagesEnum {
 
     BOOK_NOT_FOUND("Book not found"),
-    BOOK_ALREADY_EXISTS("Book already exists");
+    BOOK_ALREADY_EXISTS("Book already exists"),
+    INVALID_CURSOR("Invalid pagination cursor"),
+    BOOK_MODIFIED_CONCURRENTLY("Book was modified by another request"),
+    BOOK_COMMAND_NOT_FOUND("Book command not found"),
+    WRITE_QUEUE_FULL("Write queue is full, retry later"),
+    WRITE_JOURNAL_FAILED("The command could not be recorded and was not applied"),
+    IDEMPOTENCY_KEY_IN_USE("A request with this Idempotency-Key is still being processed"),
+    IDEMPOTENCY_KEY_REUSED("This Idempotency-Key was already used with a different request body"),
+    IDEMPOTENT_BODY_TOO_LARGE("The request body is too large to be sent with an Idempotency-Key"),
+    TOO_MANY_IDS("Too many ids requested at once");
 
     private final String message;
 
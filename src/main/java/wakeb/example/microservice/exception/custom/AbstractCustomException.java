@@ -4,9 +4,18 @@ import org.springframework.http.HttpStatus;
 
 /**
  * An abstract custom exception class that encapsulates an HTTP status code along with the error message.
- * All custom exceptions should extend from this class.
+ * All custom exceptions should extend from this class. They describe expected outcomes answered with an
+ * error response, not faults, so no stack trace is captured when they are created.
  */
 public abstract class AbstractCustomException extends RuntimeException {
+
+    private static final ClassValue<String> ERROR_CODES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return type.getSimpleName().toUpperCase();
+        }
+    };
+
     private final HttpStatus status;
 
     /**
@@ -16,7 +25,7 @@ public abstract class AbstractCustomException extends RuntimeException {
      * @param message the detail message.
      */
     public AbstractCustomException(HttpStatus status, String message) {
-        super(message);
+        super(message, null, false, false);
         this.status = status;
     }
 
@@ -35,6 +44,6 @@ public abstract class AbstractCustomException extends RuntimeException {
      * @return the error code.
      */
     public String getErrorCode() {
-        return this.getClass().getSimpleName().toUpperCase();
+        return ERROR_CODES.get(getClass());
     }
 }
\ No newline at end of file
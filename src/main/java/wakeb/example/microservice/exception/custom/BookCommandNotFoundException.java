@@ -0,0 +1,18 @@
+package wakeb.example.microservice.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when the status of an unknown or expired book command is requested.
+ */
+public class BookCommandNotFoundException extends AbstractCustomException {
+
+    /**
+     * Constructs a new BookCommandNotFoundException with a specific error message.
+     *
+     * @param message the detail message explaining the exception.
+     */
+    public BookCommandNotFoundException(String message) {
+        super(HttpStatus.NOT_FOUND, message);
+    }
+}
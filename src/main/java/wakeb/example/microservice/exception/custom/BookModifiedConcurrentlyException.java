@@ -0,0 +1,18 @@
+package wakeb.example.microservice.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a book was changed by another request while it was being updated.
+ */
+public class BookModifiedConcurrentlyException extends AbstractCustomException {
+
+    /**
+     * Constructs a new BookModifiedConcurrentlyException with a specific error message.
+     *
+     * @param message the detail message explaining the exception.
+     */
+    public BookModifiedConcurrentlyException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
@@ -0,0 +1,18 @@
+package wakeb.example.microservice.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a retry gives up waiting for the request that first used its Idempotency-Key.
+ */
+public class IdempotencyKeyInUseException extends AbstractCustomException {
+
+    /**
+     * Constructs a new IdempotencyKeyInUseException with a specific error message.
+     *
+     * @param message the detail message explaining the exception.
+     */
+    public IdempotencyKeyInUseException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
@@ -0,0 +1,18 @@
+package wakeb.example.microservice.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when an Idempotency-Key is sent again with a different request body.
+ */
+public class IdempotencyKeyReusedException extends AbstractCustomException {
+
+    /**
+     * Constructs a new IdempotencyKeyReusedException with a specific error message.
+     *
+     * @param message the detail message explaining the exception.
+     */
+    public IdempotencyKeyReusedException(String message) {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, message);
+    }
+}
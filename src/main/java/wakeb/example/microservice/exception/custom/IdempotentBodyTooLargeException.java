@@ -0,0 +1,18 @@
+package wakeb.example.microservice.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a request sent with an Idempotency-Key has a body too large to be buffered.
+ */
+public class IdempotentBodyTooLargeException extends AbstractCustomException {
+
+    /**
+     * Constructs a new IdempotentBodyTooLargeException with a specific error message.
+     *
+     * @param message the detail message explaining the exception.
+     */
+    public IdempotentBodyTooLargeException(String message) {
+        super(HttpStatus.PAYLOAD_TOO_LARGE, message);
+    }
+}
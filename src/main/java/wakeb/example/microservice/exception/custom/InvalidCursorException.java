@@ -0,0 +1,18 @@
+package wakeb.example.microservice.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a pagination cursor cannot be decoded.
+ */
+public class InvalidCursorException extends AbstractCustomException {
+
+    /**
+     * Constructs a new InvalidCursorException with a specific error message.
+     *
+     * @param message the detail message explaining the exception.
+     */
+    public InvalidCursorException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,18 @@
+package wakeb.example.microservice.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a batch lookup asks for more books than a single request may return.
+ */
+public class TooManyIdsException extends AbstractCustomException {
+
+    /**
+     * Constructs a new TooManyIdsException with a specific error message.
+     *
+     * @param message the detail message explaining the exception.
+     */
+    public TooManyIdsException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
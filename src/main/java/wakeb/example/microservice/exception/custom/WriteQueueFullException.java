@@ -0,0 +1,18 @@
+package wakeb.example.microservice.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when an asynchronous command cannot be accepted because the write queue is full.
+ */
+public class WriteQueueFullException extends AbstractCustomException {
+
+    /**
+     * Constructs a new WriteQueueFullException with a specific error message.
+     *
+     * @param message the detail message explaining the exception.
+     */
+    public WriteQueueFullException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+}
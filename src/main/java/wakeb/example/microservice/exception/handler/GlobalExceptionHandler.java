@@ -1,11 +1,15 @@
 package wakeb.example.microservice.exception.handler;
 
+import wakeb.example.microservice.config.MetricsConfig;
 import wakeb.example.microservice.dto.error.ProblemDetail;
 import wakeb.example.microservice.dto.error.ProblemDetailMapper;
 import wakeb.example.microservice.exception.custom.AbstractCustomException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
@@ -19,6 +23,8 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Global exception handler that intercepts and handles exceptions thrown by the controllers.
@@ -29,6 +35,27 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     private final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private static final ClassValue<ProblemType> PROBLEM_TYPES = new ClassValue<>() {
+        @Override
+        protected ProblemType computeValue(Class<?> type) {
+            return new ProblemType("https://example.com/probs/" + type.getSimpleName(), type.getSimpleName());
+        }
+    };
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Counter> exceptionCounters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for injecting the meter registry.
+     *
+     * @param meterRegistry the registry holding the error counters.
+     */
+    @Autowired
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Handles custom exceptions extending from {@link AbstractCustomException}.
      *
@@ -38,9 +65,10 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
      */
     @ExceptionHandler(AbstractCustomException.class)
     public ResponseEntity<wakeb.example.microservice.dto.error.ProblemDetail> handleCustomException(AbstractCustomException ex, WebRequest request) {
+        ProblemType problemType = PROBLEM_TYPES.get(ex.getClass());
         wakeb.example.microservice.dto.error.ProblemDetail problemDetail = ProblemDetailMapper.toProblemDetail(
-                "https://example.com/probs/" + ex.getClass().getSimpleName(),
-                ex.getClass().getSimpleName(),
+                problemType.type,
+                problemType.title,
                 ex.getStatus(),
                 ex.getMessage(),
                 request,
@@ -48,6 +76,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 ex.getErrorCode()
         );
         logger.warn("Handled custom exception: {}", ex.getMessage());
+        countException(problemDetail);
         return new ResponseEntity<>(problemDetail, ex.getStatus());
     }
 
@@ -79,6 +108,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 "VALIDATION_ERROR"
         );
         logger.warn("Validation errors: {}", errors);
+        countException(problemDetail);
         return new ResponseEntity<>(problemDetail, HttpStatus.BAD_REQUEST);
     }
 
@@ -107,6 +137,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 "MISSING_PARAMETER"
         );
         logger.warn("Missing parameter: {}", error);
+        countException(problemDetail);
         return new ResponseEntity<>(problemDetail, HttpStatus.BAD_REQUEST);
     }
 
@@ -135,6 +166,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 "NO_HANDLER_FOUND"
         );
         logger.warn("No handler found: {}", error);
+        countException(problemDetail);
         return new ResponseEntity<>(problemDetail, HttpStatus.NOT_FOUND);
     }
 
@@ -162,6 +194,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 "CONSTRAINT_VIOLATION"
         );
         logger.warn("Constraint violation: {}", errors);
+        countException(problemDetail);
         return new ResponseEntity<>(problemDetail, HttpStatus.BAD_REQUEST);
     }
 
@@ -184,6 +217,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 "INTERNAL_SERVER_ERROR"
         );
         logger.error("Unhandled exception: ", ex);
+        countException(problemDetail);
         return new ResponseEntity<>(problemDetail, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
@@ -209,6 +243,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 "ARGUMENT_TYPE_MISMATCH"
         );
         logger.warn("Method argument type mismatch: {}", error);
+        countException(problemDetail);
         return new ResponseEntity<>(problemDetail, HttpStatus.BAD_REQUEST);
     }
 
@@ -235,6 +270,38 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 "MESSAGE_NOT_READABLE"
         );
         logger.warn("Malformed JSON request: {}", ex.getMessage());
+        countException(problemDetail);
         return new ResponseEntity<>(problemDetail, HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Increments the error counter for the given problem, tagged by error code and HTTP status.
+     * Each error code always comes with the same status, so counters are looked up by code alone.
+     *
+     * @param problemDetail the problem about to be returned.
+     */
+    private void countException(ProblemDetail problemDetail) {
+        exceptionCounters.computeIfAbsent(problemDetail.getErrorCode(), errorCode ->
+                Counter.builder(MetricsConfig.EXCEPTION_COUNTER)
+                        .description("Error responses returned by the API")
+                        .tag("errorCode", errorCode)
+                        .tag("status", String.valueOf(problemDetail.getStatus()))
+                        .register(meterRegistry)
+        ).increment();
+    }
+
+    /**
+     * Type URI and title of the problems reported for one exception class.
+     */
+    private static final class ProblemType {
+
+        private final String type;
+
+        private final String title;
+
+        private ProblemType(String type, String title) {
+            this.type = type;
+            this.title = title;
+        }
+    }
 }
\ No newline at end of file
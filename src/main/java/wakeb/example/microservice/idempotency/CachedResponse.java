@@ -0,0 +1,33 @@
+package wakeb.example.microservice.idempotency;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A response captured for replay: its status, headers and body bytes.
+ */
+@Getter
+public final class CachedResponse {
+
+    private final int status;
+
+    private final Map<String, List<String>> headers;
+
+    // Shared with every replay, never modified
+    private final byte[] body;
+
+    /**
+     * Creates a captured response.
+     *
+     * @param status  the HTTP status code.
+     * @param headers the response headers, by name.
+     * @param body    the response body.
+     */
+    public CachedResponse(int status, Map<String, List<String>> headers, byte[] body) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+    }
+}
@@ -0,0 +1,299 @@
+package wakeb.example.microservice.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import wakeb.example.microservice.exception.ExceptionMessagesEnum;
+import wakeb.example.microservice.exception.custom.IdempotencyKeyInUseException;
+import wakeb.example.microservice.exception.custom.IdempotencyKeyReusedException;
+import wakeb.example.microservice.exception.custom.IdempotentBodyTooLargeException;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes POST, PUT and PATCH requests carrying an {@value #IDEMPOTENCY_KEY} header safe to retry.
+ * The first request with a key runs and its response is captured in the {@link IdempotencyStore};
+ * retries with the same key, method and path get that response back with an
+ * {@value #IDEMPOTENT_REPLAYED} header instead of running again. A retry arriving while the first
+ * request is still running waits for it. Server errors are handed to waiting retries but not kept,
+ * so later retries run again. The key is bound to a SHA-256 hash of the request body: reusing it
+ * with a different body is answered with 422 Unprocessable Entity instead of a replay. Bodies
+ * above {@code maxBodySize} are rejected with 413 Payload Too Large before they are buffered, and
+ * responses above {@code maxResponseSize} are not kept, like server errors.
+ */
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    /**
+     * Request header carrying the client-chosen idempotency key.
+     */
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /**
+     * Response header marking a response replayed from the store.
+     */
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    /**
+     * Name of the counter of replayed responses.
+     */
+    public static final String REPLAYED_COUNTER = "books.idempotency.replayed";
+
+    /**
+     * Name of the gauge of keys held in the store.
+     */
+    public static final String KEYS_GAUGE = "books.idempotency.keys";
+
+    private final IdempotencyStore store;
+
+    private final long waitTimeoutNanos;
+
+    private final long maxBodySize;
+
+    private final long maxResponseSize;
+
+    private final HandlerExceptionResolver exceptionResolver;
+
+    private final Counter replayed;
+
+    /**
+     * Creates the filter.
+     *
+     * @param store             the store of keys and captured responses.
+     * @param waitTimeout       how long a retry waits for the request that first used its key.
+     * @param maxBodySize       the largest request body, in bytes, that is buffered and hashed.
+     * @param maxResponseSize   the largest response body, in bytes, that is kept for replay.
+     * @param exceptionResolver the resolver rendering errors raised by the filter like controller errors.
+     * @param meterRegistry     the registry receiving the replay metrics.
+     */
+    public IdempotencyKeyFilter(IdempotencyStore store, Duration waitTimeout, long maxBodySize, long maxResponseSize,
+                                HandlerExceptionResolver exceptionResolver, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.maxBodySize = maxBodySize;
+        this.maxResponseSize = maxResponseSize;
+        this.exceptionResolver = exceptionResolver;
+        this.replayed = meterRegistry.counter(REPLAYED_COUNTER);
+        Gauge.builder(KEYS_GAUGE, store, IdempotencyStore::size).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !(HttpMethod.POST.matches(method) || HttpMethod.PUT.matches(method) || HttpMethod.PATCH.matches(method))
+                || request.getHeader(IDEMPOTENCY_KEY) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Scoped to the method and path, so one key reused across endpoints cannot replay the wrong response
+        String key = request.getMethod() + ' ' + request.getRequestURI() + ' ' + request.getHeader(IDEMPOTENCY_KEY);
+        if (request.getContentLengthLong() > maxBodySize) {
+            rejectTooLarge(request, response);
+            return;
+        }
+        // Read up front, so the body can be hashed before the key is claimed and still reach the controller;
+        // one byte past the limit tells an oversized body without a declared length
+        byte[] body = request.getInputStream().readNBytes((int) Math.min(maxBodySize + 1, Integer.MAX_VALUE));
+        if (body.length > maxBodySize) {
+            rejectTooLarge(request, response);
+            return;
+        }
+        BufferedBodyRequest buffered = new BufferedBodyRequest(request, body);
+        byte[] fingerprint = sha256(buffered.body);
+        long deadline = System.nanoTime() + waitTimeoutNanos;
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(key, fingerprint);
+            if (claim.isMismatched()) {
+                exceptionResolver.resolveException(request, response, null,
+                        new IdempotencyKeyReusedException(ExceptionMessagesEnum.IDEMPOTENCY_KEY_REUSED.getMessage()));
+                return;
+            }
+            if (claim.isOwner()) {
+                execute(key, buffered, response, chain);
+                return;
+            }
+            CachedResponse cached;
+            try {
+                cached = claim.getResponse().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (CancellationException | ExecutionException e) {
+                // The first request failed without a response; claim the key again
+                continue;
+            } catch (TimeoutException e) {
+                rejectInUse(request, response);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejectInUse(request, response);
+                return;
+            }
+            replay(cached, response);
+            return;
+        }
+    }
+
+    private void execute(String key, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean settled = false;
+        try {
+            chain.doFilter(request, wrapper);
+            CachedResponse captured = capture(wrapper);
+            if (captured.getStatus() >= 500 || captured.getBody().length > maxResponseSize) {
+                store.release(key, captured);
+            } else {
+                store.complete(key, captured);
+            }
+            settled = true;
+        } finally {
+            if (!settled) {
+                store.release(key, null);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(CachedResponse cached, HttpServletResponse response) throws IOException {
+        response.setStatus(cached.getStatus());
+        for (Map.Entry<String, List<String>> header : cached.getHeaders().entrySet()) {
+            for (String value : header.getValue()) {
+                response.addHeader(header.getKey(), value);
+            }
+        }
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        response.setContentLength(cached.getBody().length);
+        response.getOutputStream().write(cached.getBody());
+        replayed.increment();
+    }
+
+    private void rejectInUse(HttpServletRequest request, HttpServletResponse response) {
+        exceptionResolver.resolveException(request, response, null,
+                new IdempotencyKeyInUseException(ExceptionMessagesEnum.IDEMPOTENCY_KEY_IN_USE.getMessage()));
+    }
+
+    private void rejectTooLarge(HttpServletRequest request, HttpServletResponse response) {
+        exceptionResolver.resolveException(request, response, null,
+                new IdempotentBodyTooLargeException(ExceptionMessagesEnum.IDEMPOTENT_BODY_TOO_LARGE.getMessage()));
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static CachedResponse capture(ContentCachingResponseWrapper wrapper) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : wrapper.getHeaderNames()) {
+            // Cookies belong to the original exchange; the length is set again on replay
+            if (HttpHeaders.SET_COOKIE.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                continue;
+            }
+            headers.put(name, new ArrayList<>(wrapper.getHeaders(name)));
+        }
+        if (wrapper.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, List.of(wrapper.getContentType()));
+        }
+        return new CachedResponse(wrapper.getStatus(), headers, wrapper.getContentAsByteArray());
+    }
+
+    /**
+     * Request whose body has already been read, served again from memory.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available and fully read at once
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
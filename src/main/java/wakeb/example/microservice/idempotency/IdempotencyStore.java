@@ -0,0 +1,235 @@
+package wakeb.example.microservice.idempotency;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded store of idempotency keys and the responses of the requests that first used them.
+ * Keys are spread over independently locked stripes, so requests with different keys rarely
+ * contend. A key is claimed before its request runs: later requests with the same key get the
+ * same {@link CompletableFuture} and wait for the first one to finish instead of running again,
+ * provided they carry the same body fingerprint. Completed entries expire after the TTL; once a
+ * stripe is full it drops its oldest completed entry. Entries in flight are never dropped, since
+ * that would let a retry run the request a second time.
+ */
+public class IdempotencyStore {
+
+    private final Stripe[] stripes;
+
+    private final long ttlNanos;
+
+    private final LongSupplier clock;
+
+    /**
+     * Creates a store.
+     *
+     * @param maxEntries the maximum number of keys held across all stripes.
+     * @param stripes    the number of independently locked stripes.
+     * @param ttl        how long a completed response is kept.
+     */
+    public IdempotencyStore(int maxEntries, int stripes, Duration ttl) {
+        this(maxEntries, stripes, ttl, System::nanoTime);
+    }
+
+    /**
+     * Creates a store reading time from the given clock.
+     *
+     * @param maxEntries the maximum number of keys held across all stripes.
+     * @param stripes    the number of independently locked stripes.
+     * @param ttl        how long a completed response is kept.
+     * @param clock      the source of the current time, in nanoseconds.
+     */
+    public IdempotencyStore(int maxEntries, int stripes, Duration ttl, LongSupplier clock) {
+        int stripeCount = Math.max(1, stripes);
+        int stripeCapacity = Math.max(1, maxEntries / stripeCount);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(stripeCapacity);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Claims a key. The first caller, or the first one after the previous response expired or was
+     * released, becomes the owner and must either {@link #complete} or {@link #release} the key.
+     *
+     * @param key         the idempotency key, already scoped to the request it belongs to.
+     * @param fingerprint the hash of the request body, compared with the one of the owner's request.
+     * @return the claim, holding the future completed with the owner's response.
+     */
+    public Claim claim(String key, byte[] fingerprint) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null && !entry.isExpired(clock.getAsLong())) {
+                return new Claim(entry.response, false, !Arrays.equals(entry.fingerprint, fingerprint));
+            }
+            Entry claimed = new Entry(fingerprint);
+            // Re-inserted at the end, so the entries stay ordered by claim time
+            stripe.entries.remove(key);
+            stripe.entries.put(key, claimed);
+            stripe.evictCompleted();
+            return new Claim(claimed.response, true, false);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the owner's response and hands it to every waiting request.
+     *
+     * @param key      the claimed key.
+     * @param response the response to replay for this key until it expires.
+     */
+    public void complete(String key, CachedResponse response) {
+        Stripe stripe = stripeFor(key);
+        CompletableFuture<CachedResponse> future = null;
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null) {
+                entry.expiresAtNanos = clock.getAsLong() + ttlNanos;
+                future = entry.response;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (future != null) {
+            future.complete(response);
+        }
+    }
+
+    /**
+     * Forgets a key without storing a response, so the next request with it runs again.
+     * Waiting requests receive the given response, or retry their claim if it is {@code null}.
+     *
+     * @param key      the claimed key.
+     * @param response the response handed to the waiting requests, or {@code null}.
+     */
+    public void release(String key, CachedResponse response) {
+        Stripe stripe = stripeFor(key);
+        Entry entry;
+        stripe.lock.lock();
+        try {
+            entry = stripe.entries.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (entry != null) {
+            if (response != null) {
+                entry.response.complete(response);
+            } else {
+                entry.response.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys currently held.
+     *
+     * @return the number of keys across all stripes.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[((hash ^ (hash >>> 16)) & 0x7fffffff) % stripes.length];
+    }
+
+    /**
+     * Outcome of {@link #claim(String)}.
+     */
+    @Getter
+    public static final class Claim {
+
+        /**
+         * The future completed with the response of the key's owner.
+         */
+        private final CompletableFuture<CachedResponse> response;
+
+        /**
+         * Whether the caller owns the key and must run the request.
+         */
+        private final boolean owner;
+
+        /**
+         * Whether the key was first used with a different request body.
+         */
+        private final boolean mismatched;
+
+        private Claim(CompletableFuture<CachedResponse> response, boolean owner, boolean mismatched) {
+            this.response = response;
+            this.owner = owner;
+            this.mismatched = mismatched;
+        }
+    }
+
+    private static final class Entry {
+
+        private final CompletableFuture<CachedResponse> response = new CompletableFuture<>();
+
+        private final byte[] fingerprint;
+
+        // Entries still in flight never expire
+        private long expiresAtNanos = Long.MAX_VALUE;
+
+        private Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean isInFlight() {
+            return expiresAtNanos == Long.MAX_VALUE;
+        }
+
+        private boolean isExpired(long now) {
+            return !isInFlight() && now - expiresAtNanos >= 0;
+        }
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+        private final int capacity;
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Drops the oldest completed entries until the stripe is within its capacity. A stripe
+         * whose entries are all in flight stays over capacity until some of them complete.
+         */
+        private void evictCompleted() {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (entries.size() > capacity && iterator.hasNext()) {
+                if (!iterator.next().isInFlight()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
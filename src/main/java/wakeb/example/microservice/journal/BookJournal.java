@@ -0,0 +1,450 @@
+package wakeb.example.microservice.journal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.event.BookCreatedEvent;
+import wakeb.example.microservice.event.BookDeletedEvent;
+import wakeb.example.microservice.event.BookUpdatedEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of every committed create, update and delete of a book.
+ * <p>
+ * Records are framed as a length (4 bytes), a CRC-32C of the payload (4 bytes) and the payload
+ * described in {@link BookJournalRecord}, and written into memory-mapped segment files named
+ * after the sequence number of their first record. The length is written last, so a reader
+ * never sees a half-written record; a zero length marks the end of a segment. When a record
+ * does not fit, the segment is forced to disk and a new one is started; only the newest
+ * {@code retainedSegments} are kept when retention is enabled.
+ * <p>
+ * Appenders wait until their record is on disk. A single sync thread forces the active segment
+ * on their behalf, so every appender that arrives while a sync is running, or during the
+ * {@code groupCommitDelay}, shares the next one (group commit). If forcing fails, the journal
+ * stops syncing and every waiting and later appender gets an exception instead of blocking.
+ */
+@Component
+@ConditionalOnProperty(prefix = "books.journal", name = "enabled", havingValue = "true")
+public class BookJournal implements DisposableBean {
+
+    /**
+     * Name of the timer recording each forced write of the active segment.
+     */
+    public static final String SYNC_TIMER = "books.journal.sync";
+
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final int FRAME_HEADER_SIZE = 8;
+
+    private static final Logger logger = LoggerFactory.getLogger(BookJournal.class);
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int retainedSegments;
+
+    private final long groupCommitDelayNanos;
+
+    private final Timer syncTimer;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer segment;
+
+    private int position;
+
+    private long nextSequence;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private final Condition syncRequested = syncLock.newCondition();
+
+    private final Condition synced = syncLock.newCondition();
+
+    private boolean syncPending;
+
+    private long durableSequence;
+
+    private volatile boolean running = true;
+
+    private Throwable syncFailure;
+
+    private final Thread syncer;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param bookProperties the application settings, providing the journal settings.
+     * @param meterRegistry  the registry receiving the sync timer.
+     * @throws IOException if the journal directory or its newest segment cannot be opened.
+     */
+    @Autowired
+    public BookJournal(BookProperties bookProperties, MeterRegistry meterRegistry) throws IOException {
+        this(Path.of(bookProperties.getJournal().getDirectory()),
+                (int) bookProperties.getJournal().getSegmentSize().toBytes(),
+                bookProperties.getJournal().getRetainedSegments(),
+                bookProperties.getJournal().getGroupCommitDelay(),
+                meterRegistry);
+    }
+
+    /**
+     * Opens the journal in the given directory, continuing after the last intact record of the
+     * newest segment. A torn record left by a crash is discarded.
+     *
+     * @param directory        the directory holding the segment files.
+     * @param segmentSize      the size of each segment file, in bytes.
+     * @param retainedSegments the number of segments to keep, or 0 to keep all of them.
+     * @param groupCommitDelay how long a sync waits for more records before forcing them to disk.
+     * @param meterRegistry    the registry receiving the sync timer.
+     * @throws IOException if the directory or its newest segment cannot be opened.
+     */
+    public BookJournal(Path directory, int segmentSize, int retainedSegments, Duration groupCommitDelay,
+                       MeterRegistry meterRegistry) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.retainedSegments = retainedSegments;
+        this.groupCommitDelayNanos = groupCommitDelay.toNanos();
+        this.syncTimer = Timer.builder(SYNC_TIMER)
+                .description("Time to force appended journal records to disk")
+                .register(meterRegistry);
+
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            openSegment(1);
+        } else {
+            Path newest = segments.get(segments.size() - 1);
+            long firstSequence = sequenceOf(newest);
+            map(newest);
+            long[] last = {firstSequence - 1};
+            position = scan(segment, record -> last[0] = record.getSequence());
+            nextSequence = last[0] + 1;
+            discardTornTail();
+        }
+        durableSequence = nextSequence - 1;
+
+        syncer = new Thread(this::syncLoop, "book-journal-sync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    /**
+     * Records a committed creation.
+     *
+     * @param event the event carrying the created book.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookCreated(BookCreatedEvent event) {
+        sync(append(BookJournalRecord.Type.CREATED, event.getBookId(), event.getBook()));
+    }
+
+    /**
+     * Records a committed update.
+     *
+     * @param event the event carrying the updated book.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookUpdated(BookUpdatedEvent event) {
+        sync(append(BookJournalRecord.Type.UPDATED, event.getBookId(), event.getBook()));
+    }
+
+    /**
+     * Records a committed deletion.
+     *
+     * @param event the event carrying the identifier of the deleted book.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        sync(append(BookJournalRecord.Type.DELETED, event.getBookId(), null));
+    }
+
+    /**
+     * Appends a record to the active segment, rolling to a new segment if it does not fit.
+     * The record is visible to readers at once but only durable after {@link #sync(long)}.
+     *
+     * @param type   the kind of change.
+     * @param bookId the identifier of the changed book.
+     * @param book   the state of the book after the change, or {@code null} for a deletion.
+     * @return the sequence number of the record.
+     */
+    public long append(BookJournalRecord.Type type, long bookId, BookDTO book) {
+        appendLock.lock();
+        try {
+            long sequence = nextSequence;
+            byte[] payload = BookJournalRecord.encode(sequence, System.currentTimeMillis(), type, bookId, book);
+            int frameSize = FRAME_HEADER_SIZE + payload.length;
+            if (frameSize > segmentSize) {
+                throw new IllegalArgumentException("Journal record of " + frameSize + " bytes exceeds the segment size");
+            }
+            if (position + frameSize > segment.capacity()) {
+                roll(sequence);
+            }
+            crc.reset();
+            crc.update(payload);
+            segment.putInt(position + 4, (int) crc.getValue());
+            segment.put(position + FRAME_HEADER_SIZE, payload);
+            // Written last: a non-zero length tells readers the rest of the frame is complete
+            segment.putInt(position, payload.length);
+            position += frameSize;
+            nextSequence = sequence + 1;
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the record with the given sequence number has been forced to disk.
+     *
+     * @param sequence the sequence number returned by {@link #append}.
+     * @throws IllegalStateException if the journal is closed, or failed to force records to disk;
+     *                               after such a failure no later record is reported durable.
+     */
+    public void sync(long sequence) {
+        syncLock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (syncFailure != null) {
+                    throw new IllegalStateException("Journal failed to force records to disk", syncFailure);
+                }
+                if (!running) {
+                    throw new IllegalStateException("Journal is closed");
+                }
+                syncPending = true;
+                syncRequested.signal();
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Passes every intact record of every retained segment, oldest first, to the given consumer.
+     *
+     * @param consumer the callback receiving each record.
+     * @throws IOException if a segment cannot be read.
+     */
+    public void read(Consumer<BookJournalRecord> consumer) throws IOException {
+        for (Path file : listSegments()) {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                scan(in.map(FileChannel.MapMode.READ_ONLY, 0, in.size()), consumer);
+            } catch (NoSuchFileException e) {
+                // Removed by retention while reading; its records are gone for good
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence number of the oldest record still retained.
+     *
+     * @return the first sequence number of the oldest segment.
+     * @throws IOException if the journal directory cannot be listed.
+     */
+    public long getFirstSequence() throws IOException {
+        List<Path> segments = listSegments();
+        return segments.isEmpty() ? nextSequence : sequenceOf(segments.get(0));
+    }
+
+    /**
+     * Returns the sequence number the next record will get.
+     *
+     * @return the next sequence number.
+     */
+    public long getNextSequence() {
+        appendLock.lock();
+        try {
+            return nextSequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the sync thread and forces the active segment to disk.
+     */
+    @Override
+    public void destroy() throws IOException {
+        syncLock.lock();
+        try {
+            running = false;
+            syncRequested.signalAll();
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+        try {
+            syncer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appendLock.lock();
+        try {
+            segment.force();
+            channel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            syncLock.lock();
+            try {
+                while (!syncPending && running) {
+                    syncRequested.awaitUninterruptibly();
+                }
+                if (!running) {
+                    return;
+                }
+                syncPending = false;
+            } finally {
+                syncLock.unlock();
+            }
+            if (groupCommitDelayNanos > 0) {
+                // Lets concurrent appenders join this sync instead of waiting for the next one
+                LockSupport.parkNanos(groupCommitDelayNanos);
+            }
+
+            long target;
+            MappedByteBuffer active;
+            appendLock.lock();
+            try {
+                target = nextSequence - 1;
+                active = segment;
+            } finally {
+                appendLock.unlock();
+            }
+            try {
+                // Earlier segments were forced when they were rolled
+                syncTimer.record(() -> {
+                    active.force();
+                });
+            } catch (RuntimeException | Error e) {
+                // Pages that failed to write may have been dropped, so no later sync can be trusted either
+                logger.error("Failed to force the journal to disk; rejecting every later sync", e);
+                syncLock.lock();
+                try {
+                    syncFailure = e;
+                    synced.signalAll();
+                } finally {
+                    syncLock.unlock();
+                }
+                return;
+            }
+
+            syncLock.lock();
+            try {
+                durableSequence = Math.max(durableSequence, target);
+                synced.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    private void roll(long firstSequence) throws IOException {
+        segment.force();
+        channel.close();
+        openSegment(firstSequence);
+        if (retainedSegments > 0) {
+            List<Path> segments = listSegments();
+            for (Path old : segments.subList(0, Math.max(0, segments.size() - retainedSegments))) {
+                Files.deleteIfExists(old);
+                logger.info("Removed journal segment {}", old.getFileName());
+            }
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        map(directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX)));
+        position = 0;
+        nextSequence = firstSequence;
+    }
+
+    private void map(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+    }
+
+    private void discardTornTail() {
+        if (position + 4 <= segment.capacity() && segment.getInt(position) != 0) {
+            logger.warn("Discarding a torn journal record at offset {} of the newest segment", position);
+            for (int offset = position; offset < segment.capacity(); offset++) {
+                segment.put(offset, (byte) 0);
+            }
+            segment.force();
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Reads the intact records at the start of a segment.
+     *
+     * @return the offset just after the last intact record.
+     */
+    private static int scan(ByteBuffer segment, Consumer<BookJournalRecord> consumer) {
+        CRC32C check = new CRC32C();
+        int offset = 0;
+        while (offset + FRAME_HEADER_SIZE <= segment.limit()) {
+            int length = segment.getInt(offset);
+            if (length <= 0 || offset + FRAME_HEADER_SIZE + length > segment.limit()) {
+                break;
+            }
+            ByteBuffer payload = segment.slice(offset + FRAME_HEADER_SIZE, length);
+            check.reset();
+            check.update(payload.duplicate());
+            if ((int) check.getValue() != segment.getInt(offset + 4)) {
+                break;
+            }
+            consumer.accept(BookJournalRecord.decode(payload));
+            offset += FRAME_HEADER_SIZE + length;
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,162 @@
+package wakeb.example.microservice.journal;
+
+import lombok.Getter;
+import wakeb.example.microservice.dto.book.BookDTO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One change accepted by the command side, as stored in the {@link BookJournal}. Creates and
+ * updates carry the full state of the book after the change, so the latest record of a book is
+ * enough to restore it.
+ * <p>
+ * Binary layout of the payload (big-endian): sequence (8), timestamp in epoch milliseconds (8),
+ * type (1), book id (8) and, for creates and updates, a presence bitmask (1), version (8),
+ * last modified seconds (8) and nanoseconds (4), publication date as epoch day (8), then title
+ * and author as a length (4, -1 for null) followed by their UTF-8 bytes. Absent values are
+ * skipped rather than written.
+ */
+@Getter
+public class BookJournalRecord {
+
+    /**
+     * Kind of change recorded.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private static final int HAS_VERSION = 1;
+    private static final int HAS_LAST_MODIFIED = 2;
+    private static final int HAS_PUBLICATION_DATE = 4;
+
+    private final long sequence;
+
+    private final long timestamp;
+
+    private final Type type;
+
+    private final long bookId;
+
+    private final BookDTO book;
+
+    BookJournalRecord(long sequence, long timestamp, Type type, long bookId, BookDTO book) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.bookId = bookId;
+        this.book = book;
+    }
+
+    /**
+     * Returns the state of the book after the change.
+     *
+     * @return the book, or {@code null} for a deletion.
+     */
+    public BookDTO getBook() {
+        return book;
+    }
+
+    /**
+     * Encodes a change into its binary payload.
+     *
+     * @param sequence  the position of the record in the journal.
+     * @param timestamp the time the record was appended, in epoch milliseconds.
+     * @param type      the kind of change.
+     * @param bookId    the identifier of the changed book.
+     * @param book      the state of the book after the change, or {@code null} for a deletion.
+     * @return the payload bytes.
+     */
+    static byte[] encode(long sequence, long timestamp, Type type, long bookId, BookDTO book) {
+        int size = 25;
+        byte[] title = null;
+        byte[] author = null;
+        int flags = 0;
+        if (book != null) {
+            title = utf8(book.getTitle());
+            author = utf8(book.getAuthor());
+            flags = (book.getVersion() != null ? HAS_VERSION : 0)
+                    | (book.getLastModified() != null ? HAS_LAST_MODIFIED : 0)
+                    | (book.getPublicationDate() != null ? HAS_PUBLICATION_DATE : 0);
+            size += 1 + ((flags & HAS_VERSION) != 0 ? 8 : 0) + ((flags & HAS_LAST_MODIFIED) != 0 ? 12 : 0)
+                    + ((flags & HAS_PUBLICATION_DATE) != 0 ? 8 : 0) + length(title) + length(author);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(sequence).putLong(timestamp).put((byte) type.ordinal()).putLong(bookId);
+        if (book != null) {
+            buffer.put((byte) flags);
+            if ((flags & HAS_VERSION) != 0) {
+                buffer.putLong(book.getVersion());
+            }
+            if ((flags & HAS_LAST_MODIFIED) != 0) {
+                buffer.putLong(book.getLastModified().getEpochSecond()).putInt(book.getLastModified().getNano());
+            }
+            if ((flags & HAS_PUBLICATION_DATE) != 0) {
+                buffer.putLong(book.getPublicationDate().toEpochDay());
+            }
+            putString(buffer, title);
+            putString(buffer, author);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a payload written by {@link #encode}.
+     *
+     * @param payload the payload, positioned at its first byte and limited to its last.
+     * @return the decoded record.
+     */
+    static BookJournalRecord decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        long timestamp = payload.getLong();
+        Type type = Type.values()[payload.get()];
+        long bookId = payload.getLong();
+        if (type == Type.DELETED) {
+            return new BookJournalRecord(sequence, timestamp, type, bookId, null);
+        }
+        int flags = payload.get();
+        Long version = (flags & HAS_VERSION) != 0 ? payload.getLong() : null;
+        Instant lastModified = (flags & HAS_LAST_MODIFIED) != 0
+                ? Instant.ofEpochSecond(payload.getLong(), payload.getInt())
+                : null;
+        LocalDate publicationDate = (flags & HAS_PUBLICATION_DATE) != 0 ? LocalDate.ofEpochDay(payload.getLong()) : null;
+        String title = getString(payload);
+        String author = getString(payload);
+        BookDTO book = new BookDTO(bookId, title, author, publicationDate);
+        book.setVersion(version);
+        book.setLastModified(lastModified);
+        return new BookJournalRecord(sequence, timestamp, type, bookId, book);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,173 @@
+package wakeb.example.microservice.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.model.Book;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Restores books from the {@link BookJournal}. The journal is folded into the latest state of
+ * every book: records are appended after commit by concurrent requests, so their order is not
+ * the commit order, and the fold keeps the highest version of a book and never revives a
+ * deleted one. The result can be fed to any read model through {@link #replayBooks(Consumer)} or
+ * written back to the {@code books} table with {@link #rebuildBooksTable()}. The table is
+ * rebuilt on startup, before the application reports ready, when {@code books.journal.replay=true}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "books.journal", name = "enabled", havingValue = "true")
+public class BookJournalReplayer implements ApplicationRunner {
+
+    private static final String INSERT_BOOK = "insert into books (id, title, author, publication_date, version, last_modified) "
+            + "values (?, ?, ?, ?, ?, ?)";
+
+    private final Logger logger = LoggerFactory.getLogger(BookJournalReplayer.class);
+
+    private final BookJournal journal;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final boolean replayOnStartup;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param journal            the journal to replay.
+     * @param jdbcTemplate       the template used to rewrite the books table.
+     * @param transactionManager the transaction manager making the rebuild atomic.
+     * @param bookProperties     the application settings, providing the batch size and the replay flag.
+     */
+    @Autowired
+    public BookJournalReplayer(BookJournal journal,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               BookProperties bookProperties) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, bookProperties.getBatch().getSize());
+        this.replayOnStartup = bookProperties.getJournal().isReplay();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (replayOnStartup) {
+            long start = System.nanoTime();
+            int count = rebuildBooksTable();
+            logger.info("Rebuilt the books table with {} books from the journal in {} ms",
+                    count, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Passes the latest state of every book still present according to the journal, in
+     * identifier order, to the given consumer. Its signature fits the {@code rebuild} methods of
+     * the read models, e.g. {@code readModel.rebuild(replayer::replayBooks)}.
+     *
+     * @param consumer the callback receiving each book.
+     * @throws IllegalStateException if older segments were removed by retention, so the journal no longer holds every change.
+     * @throws UncheckedIOException if the journal cannot be read.
+     */
+    public void replayBooks(Consumer<BookDTO> consumer) {
+        foldJournal().books.values().forEach(consumer);
+    }
+
+    /**
+     * Replaces the content of the books table with the state folded from the journal, in one
+     * transaction. Rows are written with JDBC batches, keeping identifiers and versions, and the
+     * identifier sequence is moved past the highest journaled identifier, so even the identifiers
+     * of deleted books are not handed out again.
+     *
+     * @return the number of restored books.
+     * @throws IllegalStateException if older segments were removed by retention, so the journal no longer holds every change.
+     */
+    public int rebuildBooksTable() {
+        JournalState state = foldJournal();
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("delete from books");
+            List<BookDTO> rows = new ArrayList<>(state.books.values());
+            jdbcTemplate.batchUpdate(INSERT_BOOK, rows, batchSize, (statement, book) -> {
+                statement.setLong(1, book.getId());
+                statement.setString(2, book.getTitle());
+                statement.setString(3, book.getAuthor());
+                statement.setDate(4, book.getPublicationDate() == null ? null : Date.valueOf(book.getPublicationDate()));
+                statement.setLong(5, book.getVersion() == null ? 0L : book.getVersion());
+                statement.setTimestamp(6, book.getLastModified() == null ? null : Timestamp.from(book.getLastModified()));
+            });
+            if (state.maxBookId > 0) {
+                // The pooled generator hands out the block ending at the sequence value
+                long restartWith = state.maxBookId + Book.ID_ALLOCATION_SIZE;
+                jdbcTemplate.execute("alter sequence books_seq restart with " + restartWith);
+            }
+            return rows.size();
+        });
+    }
+
+    private JournalState foldJournal() {
+        JournalState state = new JournalState();
+        try {
+            if (journal.getFirstSequence() != 1) {
+                throw new IllegalStateException("The journal starts at record " + journal.getFirstSequence()
+                        + "; older segments were removed, so it cannot restore every book");
+            }
+            journal.read(record -> {
+                long bookId = record.getBookId();
+                if (record.getType() == BookJournalRecord.Type.DELETED) {
+                    state.books.remove(bookId);
+                    state.deletedIds.add(bookId);
+                } else if (!state.deletedIds.contains(bookId)) {
+                    // Like BookReadModel.put, an older version never overwrites a newer one
+                    BookDTO previous = state.books.get(bookId);
+                    if (previous == null || versionOf(previous) <= versionOf(record.getBook())) {
+                        state.books.put(bookId, record.getBook());
+                    }
+                }
+                state.maxBookId = Math.max(state.maxBookId, bookId);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return state;
+    }
+
+    private static long versionOf(BookDTO book) {
+        return book.getVersion() == null ? 0 : book.getVersion();
+    }
+
+    /**
+     * Latest state of every remaining book, the identifiers of deleted books and the highest
+     * identifier the journal has seen. Deleted identifiers are kept because a late update of a
+     * deleted book may follow its deletion in the journal; identifiers are never reused.
+     */
+    private static final class JournalState {
+
+        private final TreeMap<Long, BookDTO> books = new TreeMap<>();
+
+        private final Set<Long> deletedIds = new HashSet<>();
+
+        private long maxBookId;
+    }
+}
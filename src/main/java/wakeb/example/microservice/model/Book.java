@@ -4,7 +4,9 @@ package wakeb.example.microservice.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 
@@ -12,19 +14,43 @@ import java.time.LocalDate;
  * Entity representing a Book in the system.
  */
 @Entity
-@Table(name = "books")
+@Table(name = "books",
+        uniqueConstraints = @UniqueConstraint(name = Book.UNIQUE_TITLE_CONSTRAINT, columnNames = "title"),
+        indexes = {
+                @Index(name = "idx_books_author_publication_date", columnList = "author, publication_date"),
+                @Index(name = "idx_books_publication_date", columnList = "publication_date")
+        })
 @Getter
 @Setter
 public class Book {
 
+    /**
+     * Name of the unique constraint on the title column, used to recognise duplicate titles.
+     */
+    public static final String UNIQUE_TITLE_CONSTRAINT = "uk_books_title";
+
+    /**
+     * Number of identifiers taken from {@code books_seq} at a time.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // A pooled sequence hands out identifiers in blocks, which lets Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String title;
     private String author;
     private LocalDate publicationDate;
 
+    // Incremented on every update; guards against lost updates and identifies the representation in ETags
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant lastModified;
+
     //Default constructors
     public Book() {}
 
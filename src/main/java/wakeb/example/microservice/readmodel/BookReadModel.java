@@ -0,0 +1,384 @@
+package wakeb.example.microservice.readmodel;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import wakeb.example.microservice.dto.book.BookCatalogVersionDTO;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookSearchCriteriaDTO;
+import wakeb.example.microservice.dto.book.BookVersionDTO;
+import wakeb.example.microservice.event.BookCreatedEvent;
+import wakeb.example.microservice.event.BookDeletedEvent;
+import wakeb.example.microservice.event.BookEvent;
+import wakeb.example.microservice.event.BookUpdatedEvent;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Denormalized, in-memory copy of the catalog serving the query side without JDBC.
+ * It is fed by the {@link BookEvent}s published by the command side after commit and rebuilt
+ * from the database at startup. Books are kept next to secondary indexes on author and
+ * publication date; their JSON form is cached per version by the
+ * {@link wakeb.example.microservice.serialization.BookJsonCache} like any other book response.
+ * <p>
+ * Reads are lock-free. Writes are serialized, which keeps the indexes consistent with the
+ * books and lets a newer version of a book never be overwritten by an older one. Events are
+ * delivered on the committing threads, so they can arrive out of order: deleted identifiers are
+ * remembered for good, since identifiers are never reused and a late update must not bring a
+ * deleted book back.
+ */
+@Component
+@ConditionalOnProperty(prefix = "books.read-model", name = "enabled", havingValue = "true")
+public class BookReadModel {
+
+    /**
+     * Name of the timer measuring how long events take from the change to the read model.
+     */
+    public static final String LAG_TIMER = "books.readmodel.lag";
+
+    /**
+     * Name of the gauge reporting the number of books held.
+     */
+    public static final String SIZE_GAUGE = "books.readmodel.size";
+
+    private final Timer lag;
+
+    private final ConcurrentSkipListMap<Long, Entry> books = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<Long>> idsByAuthor = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<LocalDate, ConcurrentSkipListSet<Long>> idsByPublicationDate = new ConcurrentSkipListMap<>();
+
+    private final Object writeLock = new Object();
+
+    // Guarded by writeLock
+    private long count;
+    private long versionSum;
+    private Instant lastModified;
+    private final Set<Long> deletedIds = new HashSet<>();
+
+    private volatile BookCatalogVersionDTO catalogVersion = new BookCatalogVersionDTO(0L, 0L, null);
+
+    private volatile boolean ready;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param meterRegistry the registry receiving the lag and size metrics.
+     */
+    @Autowired
+    public BookReadModel(MeterRegistry meterRegistry) {
+        this.lag = Timer.builder(LAG_TIMER)
+                .description("Time from a book change to its application in the read model")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder(SIZE_GAUGE, this, model -> model.catalogVersion.getCount())
+                .description("Number of books held by the read model")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tells whether the initial load has completed. Until then, queries must go to the database.
+     *
+     * @return {@code true} once the read model mirrors the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replaces the whole content with the books supplied by the given source. Events received
+     * while the source is being read are applied as usual and take precedence over older data.
+     *
+     * @param source a callback that passes every book to the consumer it receives.
+     */
+    public void rebuild(Consumer<Consumer<BookDTO>> source) {
+        ready = false;
+        synchronized (writeLock) {
+            books.clear();
+            idsByAuthor.clear();
+            idsByPublicationDate.clear();
+            count = 0;
+            versionSum = 0;
+            lastModified = null;
+            publishCatalogVersion();
+        }
+        source.accept(this::put);
+        ready = true;
+    }
+
+    /**
+     * Applies a book creation.
+     *
+     * @param event the event carrying the created book.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookCreated(BookCreatedEvent event) {
+        put(event.getBook());
+        recordLag(event);
+    }
+
+    /**
+     * Applies a book update.
+     *
+     * @param event the event carrying the updated book.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookUpdated(BookUpdatedEvent event) {
+        put(event.getBook());
+        recordLag(event);
+    }
+
+    /**
+     * Applies a book deletion.
+     *
+     * @param event the event carrying the identifier of the deleted book.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        remove(event.getBookId());
+        recordLag(event);
+    }
+
+    /**
+     * Adds or replaces a book, unless a newer version is already held or the book was deleted.
+     *
+     * @param book the book to store.
+     */
+    public void put(BookDTO book) {
+        Entry entry = new Entry(book);
+        synchronized (writeLock) {
+            // Identifiers are never reused, so any event or rebuild read of a deleted book is stale
+            if (deletedIds.contains(entry.id)) {
+                return;
+            }
+            Entry previous = books.get(entry.id);
+            if (previous != null && previous.version > entry.version) {
+                return;
+            }
+            books.put(entry.id, entry);
+            if (previous != null) {
+                unindex(previous);
+                versionSum -= previous.version;
+            } else {
+                count++;
+            }
+            index(entry);
+            versionSum += entry.version;
+            if (entry.lastModified != null && (lastModified == null || entry.lastModified.isAfter(lastModified))) {
+                lastModified = entry.lastModified;
+            }
+            publishCatalogVersion();
+        }
+    }
+
+    /**
+     * Removes a book and keeps its identifier, so later stale versions of it are ignored.
+     *
+     * @param id the identifier of the book to remove.
+     */
+    public void remove(Long id) {
+        synchronized (writeLock) {
+            deletedIds.add(id);
+            Entry previous = books.remove(id);
+            if (previous == null) {
+                return;
+            }
+            unindex(previous);
+            count--;
+            versionSum -= previous.version;
+            publishCatalogVersion();
+        }
+    }
+
+    /**
+     * Finds a book by its identifier.
+     *
+     * @param id the identifier of the book.
+     * @return the book, or an empty optional if it is not held.
+     */
+    public Optional<BookDTO> find(Long id) {
+        Entry entry = books.get(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.toDTO());
+    }
+
+    /**
+     * Finds the version and modification time of a book.
+     *
+     * @param id the identifier of the book.
+     * @return the validators of the book, or an empty optional if it is not held.
+     */
+    public Optional<BookVersionDTO> findVersion(Long id) {
+        Entry entry = books.get(id);
+        return entry == null ? Optional.empty() : Optional.of(new BookVersionDTO(entry.id, entry.version, entry.lastModified));
+    }
+
+    /**
+     * Returns the aggregate validators of the catalog, maintained incrementally.
+     *
+     * @return the book count, the sum of book versions and the latest modification time.
+     */
+    public BookCatalogVersionDTO getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * Returns the books following the given identifier, in identifier order.
+     *
+     * @param afterId the identifier after which to start (exclusive).
+     * @param limit   the maximum number of books to return.
+     * @return the books found.
+     */
+    public List<BookDTO> findAfter(long afterId, int limit) {
+        List<BookDTO> result = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Entry> entries = books.tailMap(afterId, false).values().iterator();
+        while (entries.hasNext() && result.size() < limit) {
+            result.add(entries.next().toDTO());
+        }
+        return result;
+    }
+
+    /**
+     * Searches books matching the given criteria, in identifier order. Candidates are taken from
+     * the author index when an author is given, from the publication date index when only a date
+     * range is given, and from all books otherwise.
+     *
+     * @param criteria the search criteria; unset criteria are ignored.
+     * @param afterId  the identifier after which to start (exclusive).
+     * @param limit    the maximum number of books to return.
+     * @return the matching books.
+     */
+    public List<BookDTO> search(BookSearchCriteriaDTO criteria, long afterId, int limit) {
+        List<BookDTO> result = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Long> candidates = candidates(criteria, afterId);
+        while (candidates.hasNext() && result.size() < limit) {
+            Entry entry = books.get(candidates.next());
+            // Indexes are updated after the books, so recheck every criterion on the entry itself
+            if (entry != null && entry.matches(criteria)) {
+                result.add(entry.toDTO());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Passes every book, in identifier order, to the given consumer.
+     *
+     * @param consumer the callback receiving each book.
+     */
+    public void forEach(Consumer<BookDTO> consumer) {
+        books.values().forEach(entry -> consumer.accept(entry.toDTO()));
+    }
+
+    private Iterator<Long> candidates(BookSearchCriteriaDTO criteria, long afterId) {
+        if (hasText(criteria.getAuthor())) {
+            ConcurrentSkipListSet<Long> ids = idsByAuthor.get(criteria.getAuthor());
+            return ids == null ? Collections.emptyIterator() : ids.tailSet(afterId, false).iterator();
+        }
+        LocalDate from = criteria.getPublishedFrom();
+        LocalDate to = criteria.getPublishedTo();
+        if (from == null && to == null) {
+            return books.tailMap(afterId, false).keySet().iterator();
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return Collections.emptyIterator();
+        }
+        NavigableMap<LocalDate, ConcurrentSkipListSet<Long>> range = from == null
+                ? idsByPublicationDate.headMap(to, true)
+                : to == null ? idsByPublicationDate.tailMap(from, true) : idsByPublicationDate.subMap(from, true, to, true);
+        TreeSet<Long> ids = new TreeSet<>();
+        range.values().forEach(ids::addAll);
+        return ids.tailSet(afterId, false).iterator();
+    }
+
+    private void index(Entry entry) {
+        idsByAuthor.computeIfAbsent(entry.author, author -> new ConcurrentSkipListSet<>()).add(entry.id);
+        if (entry.publicationDate != null) {
+            idsByPublicationDate.computeIfAbsent(entry.publicationDate, date -> new ConcurrentSkipListSet<>()).add(entry.id);
+        }
+    }
+
+    private void unindex(Entry entry) {
+        removeFrom(idsByAuthor, entry.author, entry.id);
+        if (entry.publicationDate != null) {
+            removeFrom(idsByPublicationDate, entry.publicationDate, entry.id);
+        }
+    }
+
+    private static <K> void removeFrom(ConcurrentMap<K, ConcurrentSkipListSet<Long>> index, K key, Long id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private void publishCatalogVersion() {
+        catalogVersion = new BookCatalogVersionDTO(count, versionSum, lastModified);
+    }
+
+    private void recordLag(BookEvent event) {
+        lag.record(System.nanoTime() - event.getCreatedNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Immutable snapshot of a book.
+     */
+    private static final class Entry {
+
+        private final long id;
+        private final String title;
+        private final String author;
+        private final LocalDate publicationDate;
+        private final long version;
+        private final Instant lastModified;
+
+        private Entry(BookDTO book) {
+            this.id = book.getId();
+            this.title = book.getTitle();
+            this.author = book.getAuthor();
+            this.publicationDate = book.getPublicationDate();
+            this.version = book.getVersion() == null ? 0 : book.getVersion();
+            this.lastModified = book.getLastModified();
+        }
+
+        private boolean matches(BookSearchCriteriaDTO criteria) {
+            return (!hasText(criteria.getAuthor()) || criteria.getAuthor().equals(author))
+                    && (!hasText(criteria.getTitlePrefix()) || title.startsWith(criteria.getTitlePrefix()))
+                    && (criteria.getPublishedFrom() == null
+                        || (publicationDate != null && !publicationDate.isBefore(criteria.getPublishedFrom())))
+                    && (criteria.getPublishedTo() == null
+                        || (publicationDate != null && !publicationDate.isAfter(criteria.getPublishedTo())));
+        }
+
+        private BookDTO toDTO() {
+            BookDTO book = new BookDTO(id, title, author, publicationDate);
+            book.setVersion(version);
+            book.setLastModified(lastModified);
+            return book;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package wakeb.example.microservice.readmodel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import wakeb.example.microservice.service.implementation.BookQueryServiceImpl;
+
+/**
+ * Loads the {@link BookReadModel} from the database once the application has started.
+ */
+@Component
+@ConditionalOnProperty(prefix = "books.read-model", name = "enabled", havingValue = "true")
+public class BookReadModelInitializer {
+
+    private final Logger logger = LoggerFactory.getLogger(BookReadModelInitializer.class);
+
+    private final BookReadModel readModel;
+
+    private final BookQueryServiceImpl databaseQueryService;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param readModel            the read model to load.
+     * @param databaseQueryService the database-backed service streaming all books.
+     */
+    @Autowired
+    public BookReadModelInitializer(BookReadModel readModel, BookQueryServiceImpl databaseQueryService) {
+        this.readModel = readModel;
+        this.databaseQueryService = databaseQueryService;
+    }
+
+    /**
+     * Loads every book into the read model, after which queries are served from memory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        readModel.rebuild(databaseQueryService::exportAllBooks);
+        logger.info("Loaded {} books into the read model in {} ms",
+                readModel.getCatalogVersion().getCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -1,18 +1,83 @@
 package wakeb.example.microservice.repository;
+import wakeb.example.microservice.dto.book.BookCatalogVersionDTO;
+import wakeb.example.microservice.dto.book.BookVersionDTO;
 import wakeb.example.microservice.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 
 /**
  * Repository interface for performing CRUD operations on {@link Book} entities.
+ * Dynamic search queries are composed from {@link BookSpecifications}.
  */
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+
+    /**
+     * Number of rows the JDBC driver fetches per round trip when streaming the catalog.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Returns those of the given titles that are already taken, in a single set-based query.
+     *
+     * @param titles the titles to check.
+     * @return the subset of {@code titles} that already belong to a book.
+     */
+    @Query("select b.title from Book b where b.title in :titles")
+    List<String> findExistingTitles(@Param("titles") Collection<String> titles);
+
+    /**
+     * Loads only the version and modification time of a book, for answering conditional requests.
+     *
+     * @param id the identifier of the book.
+     * @return the validators of the book, or an empty optional if it does not exist.
+     */
+    @Query("select new wakeb.example.microservice.dto.book.BookVersionDTO(b.id, b.version, b.lastModified) "
+            + "from Book b where b.id = :id")
+    Optional<BookVersionDTO> findVersionById(@Param("id") Long id);
+
+    /**
+     * Computes the aggregate validators of the catalog in a single query, without loading any book.
+     *
+     * @return the book count, the sum of book versions and the latest modification time.
+     */
+    @Query("select new wakeb.example.microservice.dto.book.BookCatalogVersionDTO(count(b), sum(b.version), max(b.lastModified)) "
+            + "from Book b")
+    BookCatalogVersionDTO findCatalogVersion();
+
+    /**
+     * Seeks past the given identifier and returns the next books in identifier order.
+     * The primary key index serves both the predicate and the ordering, so the cost of a page
+     * does not depend on how deep into the table it starts.
+     *
+     * @param id    the identifier after which to start (exclusive).
+     * @param limit the maximum number of books to return.
+     * @return the books with an identifier greater than {@code id}, in ascending identifier order.
+     */
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
     /**
-     * Checks if a book exists by its title.
+     * Streams every book in identifier order. The JDBC driver fetches {@link #STREAM_FETCH_SIZE}
+     * rows at a time and the entities are loaded read-only, so Hibernate keeps no snapshots for
+     * dirty checking. The stream must be consumed inside a transaction and closed afterwards.
+     * On MySQL the connection URL needs {@code useCursorFetch=true} for the fetch size to apply.
      *
-     * @param title the title of the book.
-     * @return {@code true} if a book with the specified title exists, {@code false} otherwise.
+     * @return a lazily populated stream over all books.
      */
-    boolean existsByTitle(String title);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Book> streamAllByOrderByIdAsc();
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package wakeb.example.microservice.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import wakeb.example.microservice.dto.book.BookSearchCriteriaDTO;
+import wakeb.example.microservice.model.Book;
+
+import java.time.LocalDate;
+
+/**
+ * Factory of {@link Specification}s used to compose book search queries.
+ * Every predicate maps onto an indexed column of the {@code books} table.
+ */
+public class BookSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * Builds the specification matching all criteria that are set, seeking past the given identifier.
+     *
+     * @param criteria   the search criteria.
+     * @param lastSeenId the identifier of the last book of the previous page.
+     * @return the combined specification.
+     */
+    public static Specification<Book> matching(BookSearchCriteriaDTO criteria, long lastSeenId) {
+        Specification<Book> spec = idGreaterThan(lastSeenId);
+        if (hasText(criteria.getAuthor())) {
+            spec = spec.and(hasAuthor(criteria.getAuthor()));
+        }
+        if (hasText(criteria.getTitlePrefix())) {
+            spec = spec.and(titleStartsWith(criteria.getTitlePrefix()));
+        }
+        if (criteria.getPublishedFrom() != null) {
+            spec = spec.and(publishedOnOrAfter(criteria.getPublishedFrom()));
+        }
+        if (criteria.getPublishedTo() != null) {
+            spec = spec.and(publishedOnOrBefore(criteria.getPublishedTo()));
+        }
+        return spec;
+    }
+
+    /**
+     * Matches books with an identifier greater than the given one.
+     *
+     * @param id the identifier to seek past.
+     * @return the specification.
+     */
+    public static Specification<Book> idGreaterThan(long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * Matches books written by exactly the given author.
+     *
+     * @param author the author's name.
+     * @return the specification.
+     */
+    public static Specification<Book> hasAuthor(String author) {
+        return (root, query, cb) -> cb.equal(root.get("author"), author);
+    }
+
+    /**
+     * Matches titles starting with the given prefix. A prefix {@code LIKE} can use the
+     * title index, unlike a substring match.
+     *
+     * @param prefix the title prefix; {@code %} and {@code _} are matched literally.
+     * @return the specification.
+     */
+    public static Specification<Book> titleStartsWith(String prefix) {
+        String pattern = prefix
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("title"), pattern, LIKE_ESCAPE);
+    }
+
+    /**
+     * Matches books published on or after the given date.
+     *
+     * @param date the earliest publication date.
+     * @return the specification.
+     */
+    public static Specification<Book> publishedOnOrAfter(LocalDate date) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("publicationDate"), date);
+    }
+
+    /**
+     * Matches books published on or before the given date.
+     *
+     * @param date the latest publication date.
+     * @return the specification.
+     */
+    public static Specification<Book> publishedOnOrBefore(LocalDate date) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("publicationDate"), date);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,437 @@
+package wakeb.example.microservice.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.dto.book.BookCatalogVersionDTO;
+import wakeb.example.microservice.dto.book.BookDTO;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Embedded Lucene inverted index over book titles and authors.
+ * Every indexed document stores the fields of a {@link BookDTO}, so search results are
+ * served from the index alone without going back to the database. Changes become visible
+ * to searches immediately and are committed to disk periodically.
+ * <p>
+ * Change events are delivered on the committing threads and can arrive out of order, so every
+ * document stores the version of its book: an older version never replaces a newer one, and a
+ * deleted book is never indexed again, since identifiers are not reused.
+ * <p>
+ * Each commit records the sum of the indexed versions and the latest modification time, so the
+ * index can be compared with the catalog of the database at startup: changes lost in a crash
+ * between two commits show up as a difference even when the number of books still matches.
+ */
+@Component
+public class BookTextIndex implements DisposableBean {
+
+    /**
+     * Maximum number of ranked hits a single search may page through.
+     */
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String AUTHOR = "author";
+    private static final String PUBLICATION_DATE = "publicationDate";
+    private static final String VERSION = "version";
+
+    private static final String VERSION_SUM_DATA = "versionSum";
+    private static final String LAST_MODIFIED_DATA = "lastModified";
+
+    private final Logger logger = LoggerFactory.getLogger(BookTextIndex.class);
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ScheduledExecutorService committer;
+
+    private final Object writeLock = new Object();
+
+    // Guarded by writeLock
+    private final Set<Long> deletedIds = new HashSet<>();
+    private final Map<Long, Long> unrefreshedVersions = new HashMap<>();
+    private boolean watermarkKnown;
+    private long versionSum;
+    private long lastModifiedMillis = -1;
+
+    /**
+     * Opens (or creates) the index.
+     *
+     * @param bookProperties the application settings, providing the index directory and commit interval.
+     * @throws IOException if the index cannot be opened.
+     */
+    @Autowired
+    public BookTextIndex(BookProperties bookProperties) throws IOException {
+        String indexDirectory = bookProperties.getSearch().getIndexDirectory();
+        this.directory = (indexDirectory == null || indexDirectory.isBlank())
+                ? new ByteBuffersDirectory()
+                : FSDirectory.open(Path.of(indexDirectory));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        readWatermark();
+
+        long commitMillis = bookProperties.getSearch().getCommitInterval().toMillis();
+        this.committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "book-index-committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(this::commitQuietly, commitMillis, commitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds or replaces a single book.
+     *
+     * @param book the book to index.
+     */
+    public void index(BookDTO book) {
+        synchronized (writeLock) {
+            update(book);
+            refresh();
+        }
+    }
+
+    /**
+     * Adds or replaces several books, making them searchable at once.
+     *
+     * @param books the books to index.
+     */
+    public void indexAll(Collection<BookDTO> books) {
+        synchronized (writeLock) {
+            books.forEach(this::update);
+            refresh();
+        }
+    }
+
+    /**
+     * Removes a book from the index.
+     *
+     * @param id the identifier of the book to remove.
+     */
+    public void remove(Long id) {
+        synchronized (writeLock) {
+            deletedIds.add(id);
+            Long indexed = indexedVersion(id);
+            if (indexed != null) {
+                versionSum -= indexed;
+            }
+            try {
+                writer.deleteDocuments(new Term(ID, String.valueOf(id)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            refresh();
+        }
+    }
+
+    /**
+     * Replaces the whole index content with the books supplied by the given source.
+     *
+     * @param source a callback that passes every book to the consumer it receives.
+     */
+    public void rebuild(Consumer<Consumer<BookDTO>> source) {
+        try {
+            synchronized (writeLock) {
+                writer.deleteAll();
+                refresh();
+                watermarkKnown = true;
+                versionSum = 0;
+                lastModifiedMillis = -1;
+            }
+            // Each book is checked against the events applied meanwhile, which may be newer than the source
+            source.accept(book -> {
+                synchronized (writeLock) {
+                    update(book);
+                }
+            });
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        refresh();
+    }
+
+    /**
+     * Returns the aggregate validators of the indexed books, in the form the database reports
+     * them. The latest modification time only ever grows, so it is newer than the database's
+     * after the most recently modified book was deleted, which merely causes one extra rebuild.
+     *
+     * @return the book count, the sum of book versions and the latest modification time, or
+     * {@code null} if the index was committed without them.
+     */
+    public BookCatalogVersionDTO getCatalogVersion() {
+        synchronized (writeLock) {
+            if (!watermarkKnown) {
+                return null;
+            }
+            return new BookCatalogVersionDTO((long) size(), versionSum,
+                    lastModifiedMillis < 0 ? null : Instant.ofEpochMilli(lastModifiedMillis));
+        }
+    }
+
+    /**
+     * Returns the number of books in the index.
+     *
+     * @return the number of indexed books.
+     */
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Searches titles and authors. Every word of the query must match a title or author word,
+     * either exactly or as a prefix; exact matches and title matches rank higher.
+     *
+     * @param text the free-text query.
+     * @param page the zero-based page number.
+     * @param size the number of results per page.
+     * @return the books of the requested page, best match first.
+     */
+    public List<BookDTO> search(String text, int page, int size) {
+        List<String> tokens = tokenize(text);
+        // Computed in long: (page + 1) * size overflows int for large pages and would pass the check
+        long window = (page + 1L) * size;
+        if (tokens.isEmpty() || page < 0 || size < 1 || window > MAX_RESULT_WINDOW) {
+            return Collections.emptyList();
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String token : tokens) {
+            query.add(new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(TITLE, token)), 3f), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new TermQuery(new Term(AUTHOR, token)), 2f), BooleanClause.Occur.SHOULD)
+                    .add(new PrefixQuery(new Term(TITLE, token)), BooleanClause.Occur.SHOULD)
+                    .add(new PrefixQuery(new Term(AUTHOR, token)), BooleanClause.Occur.SHOULD)
+                    .build(), BooleanClause.Occur.MUST);
+        }
+
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopDocs topDocs = searcher.search(query.build(), (int) window);
+            StoredFields storedFields = searcher.storedFields();
+            List<BookDTO> results = new ArrayList<>(size);
+            ScoreDoc[] hits = topDocs.scoreDocs;
+            for (int i = page * size; i < hits.length; i++) {
+                results.add(toBook(storedFields.document(hits[i].doc)));
+            }
+            return results;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (searcher != null) {
+                releaseQuietly(searcher);
+            }
+        }
+    }
+
+    /**
+     * Commits pending changes and closes the index.
+     *
+     * @throws IOException if the index cannot be closed cleanly.
+     */
+    @Override
+    public void destroy() throws IOException {
+        committer.shutdownNow();
+        commit();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Writes a book unless it was deleted or a newer version is indexed. Called under the write lock.
+     */
+    private void update(BookDTO book) {
+        long version = book.getVersion() == null ? 0 : book.getVersion();
+        Long indexed = indexedVersion(book.getId());
+        if (deletedIds.contains(book.getId()) || (indexed != null && indexed > version)) {
+            return;
+        }
+        versionSum += version - (indexed == null ? 0 : indexed);
+        if (book.getLastModified() != null) {
+            lastModifiedMillis = Math.max(lastModifiedMillis, book.getLastModified().toEpochMilli());
+        }
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(book.getId()), Field.Store.YES));
+        document.add(new StoredField(VERSION, version));
+        document.add(new TextField(TITLE, book.getTitle(), Field.Store.YES));
+        document.add(new TextField(AUTHOR, book.getAuthor(), Field.Store.YES));
+        if (book.getPublicationDate() != null) {
+            document.add(new StoredField(PUBLICATION_DATE, book.getPublicationDate().toString()));
+        }
+        try {
+            writer.updateDocument(new Term(ID, String.valueOf(book.getId())), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        unrefreshedVersions.put(book.getId(), version);
+    }
+
+    /**
+     * Returns the version of the indexed document of a book, looking first at the documents
+     * written since the last refresh, which searchers cannot see yet.
+     *
+     * @return the version, or {@code null} if the book is not indexed or was indexed without one.
+     */
+    private Long indexedVersion(Long id) {
+        Long unrefreshed = unrefreshedVersions.get(id);
+        if (unrefreshed != null) {
+            return unrefreshed;
+        }
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopDocs topDocs = searcher.search(new TermQuery(new Term(ID, String.valueOf(id))), 1);
+            if (topDocs.scoreDocs.length == 0) {
+                return null;
+            }
+            Document document = searcher.storedFields().document(topDocs.scoreDocs[0].doc, Set.of(VERSION));
+            return document.getField(VERSION) == null ? null : document.getField(VERSION).numericValue().longValue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (searcher != null) {
+                releaseQuietly(searcher);
+            }
+        }
+    }
+
+    private BookDTO toBook(Document document) {
+        String publicationDate = document.get(PUBLICATION_DATE);
+        return new BookDTO(
+                Long.valueOf(document.get(ID)),
+                document.get(TITLE),
+                document.get(AUTHOR),
+                publicationDate == null ? null : LocalDate.parse(publicationDate));
+    }
+
+    private List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        try (TokenStream stream = analyzer.tokenStream(TITLE, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+
+    private void refresh() {
+        synchronized (writeLock) {
+            try {
+                searcherManager.maybeRefreshBlocking();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            unrefreshedVersions.clear();
+        }
+    }
+
+    /**
+     * Commits the indexed documents together with the watermark describing them. Writes wait
+     * meanwhile, so the watermark never covers more or fewer changes than the commit.
+     */
+    private void commit() throws IOException {
+        synchronized (writeLock) {
+            if (!writer.hasUncommittedChanges()) {
+                return;
+            }
+            if (watermarkKnown) {
+                writer.setLiveCommitData(Map.of(
+                        VERSION_SUM_DATA, String.valueOf(versionSum),
+                        LAST_MODIFIED_DATA, String.valueOf(lastModifiedMillis)).entrySet());
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * Restores the watermark of the last commit. An index committed without one can only be
+     * trusted when it is empty.
+     */
+    private void readWatermark() {
+        Map<String, String> data = new HashMap<>();
+        Iterable<Map.Entry<String, String>> committed = writer.getLiveCommitData();
+        if (committed != null) {
+            committed.forEach(entry -> data.put(entry.getKey(), entry.getValue()));
+        }
+        if (data.containsKey(VERSION_SUM_DATA) && data.containsKey(LAST_MODIFIED_DATA)) {
+            watermarkKnown = true;
+            versionSum = Long.parseLong(data.get(VERSION_SUM_DATA));
+            lastModifiedMillis = Long.parseLong(data.get(LAST_MODIFIED_DATA));
+        } else {
+            watermarkKnown = size() == 0;
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to commit the book index: {}", e.getMessage());
+        }
+    }
+
+    private void releaseQuietly(IndexSearcher searcher) {
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            logger.warn("Failed to release an index searcher: {}", e.getMessage());
+        }
+    }
+}
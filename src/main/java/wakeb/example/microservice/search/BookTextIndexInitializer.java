@@ -0,0 +1,65 @@
+package wakeb.example.microservice.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import wakeb.example.microservice.dto.book.BookCatalogVersionDTO;
+import wakeb.example.microservice.dto.book.BookETags;
+import wakeb.example.microservice.repository.BookRepository;
+import wakeb.example.microservice.service.interfaces.BookQueryService;
+
+/**
+ * Rebuilds the {@link BookTextIndex} from the database at startup when the watermark of the
+ * index does not match the catalog of the database, e.g. on first start, after the index
+ * directory was lost, or after a crash dropped changes that were not committed yet.
+ */
+@Component
+public class BookTextIndexInitializer {
+
+    private final Logger logger = LoggerFactory.getLogger(BookTextIndexInitializer.class);
+
+    private final BookTextIndex bookTextIndex;
+    private final BookQueryService bookQueryService;
+    private final BookRepository bookRepository;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param bookTextIndex    the index to initialize.
+     * @param bookQueryService the service streaming all books.
+     * @param bookRepository   the repository reading the catalog version of the stored books.
+     */
+    @Autowired
+    public BookTextIndexInitializer(BookTextIndex bookTextIndex,
+                                    BookQueryService bookQueryService,
+                                    BookRepository bookRepository) {
+        this.bookTextIndex = bookTextIndex;
+        this.bookQueryService = bookQueryService;
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Rebuilds the index once the application has started, if it is out of step with the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfStale() {
+        BookCatalogVersionDTO stored = bookRepository.findCatalogVersion();
+        BookCatalogVersionDTO indexed = bookTextIndex.getCatalogVersion();
+        if (matches(indexed, stored)) {
+            return;
+        }
+        logger.info("Rebuilding the book text index ({} indexed, {} stored)", bookTextIndex.size(), stored.getCount());
+        bookTextIndex.rebuild(bookQueryService::exportAllBooks);
+    }
+
+    // Compared to the millisecond, the precision both sides keep
+    private static boolean matches(BookCatalogVersionDTO indexed, BookCatalogVersionDTO stored) {
+        return indexed != null
+                && indexed.getCount() == stored.getCount()
+                && indexed.getVersionSum() == stored.getVersionSum()
+                && BookETags.toEpochMilli(indexed.getLastModified()) == BookETags.toEpochMilli(stored.getLastModified());
+    }
+}
@@ -0,0 +1,58 @@
+package wakeb.example.microservice.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import wakeb.example.microservice.event.BookCreatedEvent;
+import wakeb.example.microservice.event.BookDeletedEvent;
+import wakeb.example.microservice.event.BookUpdatedEvent;
+
+/**
+ * Keeps the {@link BookTextIndex} in step with the database. Events are handled after commit,
+ * so rolled back changes never reach the index.
+ */
+@Component
+public class BookTextIndexUpdater {
+
+    private final BookTextIndex bookTextIndex;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param bookTextIndex the index to update.
+     */
+    @Autowired
+    public BookTextIndexUpdater(BookTextIndex bookTextIndex) {
+        this.bookTextIndex = bookTextIndex;
+    }
+
+    /**
+     * Indexes a new book.
+     *
+     * @param event the event carrying the created book.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookCreated(BookCreatedEvent event) {
+        bookTextIndex.index(event.getBook());
+    }
+
+    /**
+     * Re-indexes an updated book.
+     *
+     * @param event the event carrying the updated book.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookUpdated(BookUpdatedEvent event) {
+        bookTextIndex.index(event.getBook());
+    }
+
+    /**
+     * Removes a deleted book from the index.
+     *
+     * @param event the event carrying the identifier of the deleted book.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        bookTextIndex.remove(event.getBookId());
+    }
+}
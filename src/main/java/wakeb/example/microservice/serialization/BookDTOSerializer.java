@@ -0,0 +1,26 @@
+package wakeb.example.microservice.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+import wakeb.example.microservice.dto.book.BookDTO;
+
+import java.io.IOException;
+
+/**
+ * Registers {@link BookJsonWriter} with the application's {@code ObjectMapper}, so every
+ * {@link BookDTO} written by Jackson skips reflection-based bean serialization.
+ */
+@JsonComponent
+public class BookDTOSerializer extends StdSerializer<BookDTO> {
+
+    public BookDTOSerializer() {
+        super(BookDTO.class);
+    }
+
+    @Override
+    public void serialize(BookDTO book, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        BookJsonWriter.write(generator, book);
+    }
+}
@@ -0,0 +1,114 @@
+package wakeb.example.microservice.serialization;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.event.BookDeletedEvent;
+import wakeb.example.microservice.event.BookUpdatedEvent;
+
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * Cache of the UTF-8 JSON form of books, so that hot books are serialized once per version
+ * instead of once per request. Entries are keyed by identifier and only served for the version
+ * they were built from; they are also dropped as soon as a book is updated or deleted.
+ */
+@Component
+public class BookJsonCache {
+
+    /**
+     * Name under which the cache statistics are published as {@code cache.*} metrics.
+     */
+    public static final String CACHE_NAME = "bookJson";
+
+    private final ObjectWriter writer;
+
+    private final Cache<Long, Entry> cache;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param objectMapper   the mapper defining the JSON form of a book.
+     * @param bookProperties the application settings, providing the cache size.
+     * @param meterRegistry  the registry receiving the cache statistics.
+     */
+    @Autowired
+    public BookJsonCache(ObjectMapper objectMapper, BookProperties bookProperties, MeterRegistry meterRegistry) {
+        this.writer = objectMapper.writerFor(BookDTO.class);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(bookProperties.getJsonCache().getMaximumSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the JSON form of the given book, serializing it only if no entry exists for its version.
+     * Books without a version, such as full-text search hits, are serialized but not cached.
+     *
+     * @param book the book to serialize.
+     * @return the UTF-8 JSON bytes. The array is shared and must not be modified.
+     */
+    public byte[] toJson(BookDTO book) {
+        if (book.getId() == null || book.getVersion() == null) {
+            return serialize(book);
+        }
+        Entry entry = cache.getIfPresent(book.getId());
+        if (entry != null && Objects.equals(entry.version, book.getVersion())) {
+            return entry.json;
+        }
+        byte[] json = serialize(book);
+        cache.put(book.getId(), new Entry(book.getVersion(), json));
+        return json;
+    }
+
+    /**
+     * Drops the entry of an updated book.
+     *
+     * @param event the event carrying the updated book.
+     */
+    @EventListener
+    public void onBookUpdated(BookUpdatedEvent event) {
+        cache.invalidate(event.getBookId());
+    }
+
+    /**
+     * Drops the entry of a deleted book.
+     *
+     * @param event the event carrying the identifier of the deleted book.
+     */
+    @EventListener
+    public void onBookDeleted(BookDeletedEvent event) {
+        cache.invalidate(event.getBookId());
+    }
+
+    private byte[] serialize(BookDTO book) {
+        try {
+            return writer.writeValueAsBytes(book);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Long version;
+
+        private final byte[] json;
+
+        private Entry(Long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
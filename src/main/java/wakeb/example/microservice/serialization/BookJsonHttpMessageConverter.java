@@ -0,0 +1,147 @@
+package wakeb.example.microservice.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookLookupDTO;
+import wakeb.example.microservice.dto.book.BookPageDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes books, collections of books, pages of books and batch lookups from the pre-serialized fragments held
+ * by {@link BookJsonCache}. Collections are assembled by concatenating the fragments, so a cached
+ * book is never serialized again. The output is byte-for-byte what Jackson would produce;
+ * reading is left to the regular Jackson converter.
+ */
+public class BookJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private static final byte[] ITEMS_FIELD = "{\"items\":".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] NEXT_CURSOR_FIELD = ",\"nextCursor\":".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] MISSING_IDS_FIELD = ",\"missingIds\":".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] ARRAY_START = {'['};
+
+    private static final byte[] ARRAY_END = {']'};
+
+    private static final byte[] OBJECT_END = {'}'};
+
+    private static final byte[] SEPARATOR = {','};
+
+    private final BookJsonCache bookJsonCache;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a converter backed by the given cache.
+     *
+     * @param bookJsonCache the cache providing the JSON of each book.
+     * @param objectMapper  the mapper used for the page cursor and the missing identifiers.
+     */
+    public BookJsonHttpMessageConverter(BookJsonCache bookJsonCache, ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        setDefaultCharset(StandardCharsets.UTF_8);
+        this.bookJsonCache = bookJsonCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return BookDTO.class == clazz || BookPageDTO.class == clazz || BookLookupDTO.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (supports(clazz)) {
+            return true;
+        }
+        // The element type is only known from the declared type, e.g. ResponseEntity<List<BookDTO>>
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        return Collection.class.isAssignableFrom(resolved.toClass())
+                && BookDTO.class == resolved.asCollection().getGeneric().resolve();
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        List<byte[]> fragments = new ArrayList<>();
+        if (body instanceof BookDTO book) {
+            fragments.add(bookJsonCache.toJson(book));
+        } else if (body instanceof BookPageDTO page) {
+            fragments.add(ITEMS_FIELD);
+            addArray(page.getItems(), fragments);
+            if (page.getNextCursor() != null) {
+                fragments.add(NEXT_CURSOR_FIELD);
+                fragments.add(objectMapper.writeValueAsBytes(page.getNextCursor()));
+            }
+            fragments.add(OBJECT_END);
+        } else if (body instanceof BookLookupDTO lookup) {
+            fragments.add(ITEMS_FIELD);
+            addArray(lookup.getItems(), fragments);
+            fragments.add(MISSING_IDS_FIELD);
+            fragments.add(objectMapper.writeValueAsBytes(lookup.getMissingIds()));
+            fragments.add(OBJECT_END);
+        } else {
+            addArray((Collection<?>) body, fragments);
+        }
+
+        long length = 0;
+        for (byte[] fragment : fragments) {
+            length += fragment.length;
+        }
+        outputMessage.getHeaders().setContentLength(length);
+        OutputStream out = outputMessage.getBody();
+        for (byte[] fragment : fragments) {
+            out.write(fragment);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Book JSON is read by the Jackson converter", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Book JSON is read by the Jackson converter", inputMessage);
+    }
+
+    private void addArray(Collection<?> books, List<byte[]> fragments) {
+        if (books == null) {
+            fragments.add(NULL);
+            return;
+        }
+        fragments.add(ARRAY_START);
+        boolean first = true;
+        for (Object book : books) {
+            if (!first) {
+                fragments.add(SEPARATOR);
+            }
+            fragments.add(bookJsonCache.toJson((BookDTO) book));
+            first = false;
+        }
+        fragments.add(ARRAY_END);
+    }
+}
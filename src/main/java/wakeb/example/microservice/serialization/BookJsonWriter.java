@@ -0,0 +1,72 @@
+package wakeb.example.microservice.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.model.Book;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Hand-written streaming serializer for books. Fields are written straight to a
+ * {@link JsonGenerator} in the order and format Jackson uses for {@link BookDTO}, without
+ * reflection and, for entities, without building an intermediate data transfer object.
+ */
+public final class BookJsonWriter {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString AUTHOR = new SerializedString("author");
+    private static final SerializedString PUBLICATION_DATE = new SerializedString("publicationDate");
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    private BookJsonWriter() {
+    }
+
+    /**
+     * Writes a book entity as a JSON object.
+     *
+     * @param generator the generator to write to.
+     * @param book      the book to write.
+     * @throws IOException if writing fails.
+     */
+    public static void write(JsonGenerator generator, Book book) throws IOException {
+        write(generator, book.getId(), book.getTitle(), book.getAuthor(), book.getPublicationDate(), book.getVersion());
+    }
+
+    /**
+     * Writes a book data transfer object as a JSON object.
+     *
+     * @param generator the generator to write to.
+     * @param book      the book to write.
+     * @throws IOException if writing fails.
+     */
+    public static void write(JsonGenerator generator, BookDTO book) throws IOException {
+        write(generator, book.getId(), book.getTitle(), book.getAuthor(), book.getPublicationDate(), book.getVersion());
+    }
+
+    private static void write(JsonGenerator generator, Long id, String title, String author,
+                              LocalDate publicationDate, Long version) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        if (id == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(id);
+        }
+        generator.writeFieldName(TITLE);
+        generator.writeString(title);
+        generator.writeFieldName(AUTHOR);
+        generator.writeString(author);
+        generator.writeFieldName(PUBLICATION_DATE);
+        // ISO-8601, as written by Jackson's LocalDateSerializer with dates not written as timestamps
+        generator.writeString(publicationDate == null ? null : publicationDate.toString());
+        // Omitted when absent, like @JsonInclude(NON_NULL) on BookDTO.version
+        if (version != null) {
+            generator.writeFieldName(VERSION);
+            generator.writeNumber(version);
+        }
+        generator.writeEndObject();
+    }
+}
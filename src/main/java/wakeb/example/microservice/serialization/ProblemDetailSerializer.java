@@ -0,0 +1,70 @@
+package wakeb.example.microservice.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+import wakeb.example.microservice.dto.error.ProblemDetail;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written serializer for error responses. Fields are written in the order and format
+ * Jackson uses for {@link ProblemDetail}, leaving out null fields, without reflection.
+ */
+@JsonComponent
+public class ProblemDetailSerializer extends StdSerializer<ProblemDetail> {
+
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString DETAIL = new SerializedString("detail");
+    private static final SerializedString INSTANCE = new SerializedString("instance");
+    private static final SerializedString ERRORS = new SerializedString("errors");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString ERROR_CODE = new SerializedString("errorCode");
+
+    public ProblemDetailSerializer() {
+        super(ProblemDetail.class);
+    }
+
+    @Override
+    public void serialize(ProblemDetail problem, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, TYPE, problem.getType());
+        writeString(generator, TITLE, problem.getTitle());
+        generator.writeFieldName(STATUS);
+        generator.writeNumber(problem.getStatus());
+        writeString(generator, DETAIL, problem.getDetail());
+        writeString(generator, INSTANCE, problem.getInstance());
+        if (problem.getErrors() != null) {
+            generator.writeFieldName(ERRORS);
+            generator.writeStartArray();
+            for (String error : problem.getErrors()) {
+                generator.writeString(error);
+            }
+            generator.writeEndArray();
+        }
+        if (problem.getTimestamp() != null) {
+            generator.writeFieldName(TIMESTAMP);
+            if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+                provider.defaultSerializeValue(problem.getTimestamp(), generator);
+            } else {
+                // The format of Jackson's LocalDateTimeSerializer, which unlike toString() always writes seconds
+                generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(problem.getTimestamp()));
+            }
+        }
+        writeString(generator, ERROR_CODE, problem.getErrorCode());
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            generator.writeString(value);
+        }
+    }
+}
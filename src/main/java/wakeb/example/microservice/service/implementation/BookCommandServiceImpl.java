@@ -1,53 +1,138 @@
 package wakeb.example.microservice.service.implementation;
 
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.config.CacheConfig;
+import wakeb.example.microservice.config.MetricsConfig;
+import wakeb.example.microservice.dto.book.BookBatchResultDTO;
 import wakeb.example.microservice.dto.book.BookDTO;
 import wakeb.example.microservice.dto.book.BookDTOMapper;
+import wakeb.example.microservice.event.BookCreatedEvent;
+import wakeb.example.microservice.event.BookDeletedEvent;
+import wakeb.example.microservice.event.BookUpdatedEvent;
 import wakeb.example.microservice.exception.custom.BookAlreadyExistsException;
 import wakeb.example.microservice.exception.ExceptionMessagesEnum;
+import wakeb.example.microservice.exception.custom.BookModifiedConcurrentlyException;
 import wakeb.example.microservice.exception.custom.BookNotFoundException;
 import wakeb.example.microservice.model.Book;
 import wakeb.example.microservice.repository.BookRepository;
 import wakeb.example.microservice.service.interfaces.BookCommandService;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Implementation of the {@link BookCommandService} interface that handles command operations
- * (create, update, delete) for books.
+ * (create, update, delete) for books. Every write keeps the {@link CacheConfig#BOOKS_CACHE}
+ * cache in step with the database and publishes a {@link wakeb.example.microservice.event.BookEvent},
+ * which listeners receive once the change is committed. Each operation runs in a single read-write
+ * transaction, so its reads are served by the primary.
  */
 @Service
+@Transactional
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class BookCommandServiceImpl implements BookCommandService {
 
+    /**
+     * Maximum number of titles bound to a single {@code IN} clause when checking for duplicates.
+     */
+    private static final int TITLE_LOOKUP_CHUNK_SIZE = 1000;
+
     private final BookRepository bookRepository;
 
+    private final EntityManager entityManager;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+
     /**
      * Constructor for dependency injection.
      *
      * @param bookRepository the repository for accessing book data.
+     * @param entityManager  the entity manager used to flush and clear bulk inserts.
+     * @param eventPublisher the publisher of book events.
+     * @param bookProperties the application settings, providing the JDBC batch size.
      */
     @Autowired
-    public BookCommandServiceImpl(BookRepository bookRepository) {
+    public BookCommandServiceImpl(BookRepository bookRepository,
+                                  EntityManager entityManager,
+                                  ApplicationEventPublisher eventPublisher,
+                                  BookProperties bookProperties) {
         this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.max(1, bookProperties.getBatch().getSize());
     }
 
     /**
-     * Creates a new book after ensuring that it does not already exist.
+     * Creates a new book. Uniqueness of the title is enforced by the database constraint,
+     * so no separate existence check is needed and concurrent creates cannot both succeed.
      *
      * @param bookDTO the data transfer object containing book details.
      * @return the created book as a data transfer object.
      * @throws BookAlreadyExistsException if a book with the same title already exists.
      */
     @Override
+    @CachePut(cacheNames = CacheConfig.BOOKS_CACHE, key = "#result.id")
     public BookDTO createBook(BookDTO bookDTO) {
-        // Check if book already exists by title
-        if (bookRepository.existsByTitle(bookDTO.getTitle())) {
-            throw new BookAlreadyExistsException(
-                    ExceptionMessagesEnum.BOOK_ALREADY_EXISTS.getMessage()
-            );
-        }
         Book book = BookDTOMapper.toEntity(bookDTO);
-        Book savedBook = bookRepository.save(book);
-        return BookDTOMapper.toDTO(savedBook);
+        Book savedBook = saveAndFlush(book);
+        BookDTO createdBook = BookDTOMapper.toDTO(savedBook);
+        eventPublisher.publishEvent(new BookCreatedEvent(createdBook));
+        return createdBook;
+    }
+
+    /**
+     * Creates many books in one transaction. Taken titles are looked up with set-based queries
+     * instead of one query per item, and new books are flushed in groups of {@code batchSize}
+     * so that Hibernate sends them as JDBC batches. The persistence context is cleared after
+     * every group to keep memory flat for large feeds.
+     *
+     * @param bookDTOs the data transfer objects containing the details of each book.
+     * @return one result per submitted item, in submission order.
+     * @throws BookAlreadyExistsException if a concurrent writer took one of the titles in the meantime.
+     */
+    @Override
+    @Transactional
+    public List<BookBatchResultDTO> createBooks(List<BookDTO> bookDTOs) {
+        Set<String> takenTitles = findExistingTitles(bookDTOs);
+        List<BookBatchResultDTO> results = new ArrayList<>(bookDTOs.size());
+        List<Book> pending = new ArrayList<>(batchSize);
+
+        for (int index = 0; index < bookDTOs.size(); index++) {
+            BookDTO bookDTO = bookDTOs.get(index);
+            // Set.add also reports duplicates within the request itself
+            if (!takenTitles.add(bookDTO.getTitle())) {
+                results.add(new BookBatchResultDTO(index, BookBatchResultDTO.Status.DUPLICATE, null, bookDTO.getTitle()));
+                continue;
+            }
+            Book book = BookDTOMapper.toEntity(bookDTO);
+            book.setId(null);
+            bookRepository.save(book);
+            results.add(new BookBatchResultDTO(index, BookBatchResultDTO.Status.CREATED, book.getId(), book.getTitle()));
+
+            pending.add(book);
+            if (pending.size() == batchSize) {
+                flushAndClear(pending);
+            }
+        }
+        flushAndClear(pending);
+        return results;
     }
 
     /**
@@ -57,8 +142,11 @@ public class BookCommandServiceImpl implements BookCommandService {
      * @param bookDTO the data transfer object containing updated book details.
      * @return the updated book as a data transfer object.
      * @throws BookNotFoundException if the book with the specified id is not found.
+     * @throws BookAlreadyExistsException if the new title belongs to another book.
+     * @throws BookModifiedConcurrentlyException if another request updated the book in the meantime.
      */
     @Override
+    @CachePut(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
     public BookDTO updateBook(Long id, BookDTO bookDTO) {
         // For simplicity, assume that if it doesn't exist, it fails
         Book existingBook = bookRepository.findById(id)
@@ -68,8 +156,53 @@ public class BookCommandServiceImpl implements BookCommandService {
         existingBook.setTitle(bookDTO.getTitle());
         existingBook.setAuthor(bookDTO.getAuthor());
         existingBook.setPublicationDate(bookDTO.getPublicationDate());
-        Book updatedBook = bookRepository.save(existingBook);
-        return BookDTOMapper.toDTO(updatedBook);
+        Book updatedBook = saveAndFlush(existingBook);
+        BookDTO updatedBookDTO = BookDTOMapper.toDTO(updatedBook);
+        eventPublisher.publishEvent(new BookUpdatedEvent(updatedBookDTO));
+        return updatedBookDTO;
+    }
+
+    /**
+     * Updates many books in one transaction. The books are loaded with a single query and their
+     * changes are flushed together, so Hibernate sends the updates as JDBC batches. Events are
+     * published after the flush, once the new versions are assigned.
+     *
+     * @param bookDTOs the data transfer objects containing the identifier and new details of each book.
+     * @return one result per submitted item, in submission order.
+     * @throws BookAlreadyExistsException if one of the new titles belongs to another book.
+     * @throws BookModifiedConcurrentlyException if another request updated one of the books in the meantime.
+     */
+    @Override
+    public List<BookBatchResultDTO> updateBooks(List<BookDTO> bookDTOs) {
+        Map<Long, Book> existingBooks = new HashMap<>();
+        bookRepository.findAllById(bookDTOs.stream().map(BookDTO::getId).distinct().toList())
+                .forEach(book -> existingBooks.put(book.getId(), book));
+        List<BookBatchResultDTO> results = new ArrayList<>(bookDTOs.size());
+        List<Book> updated = new ArrayList<>(bookDTOs.size());
+
+        for (int index = 0; index < bookDTOs.size(); index++) {
+            BookDTO bookDTO = bookDTOs.get(index);
+            Book book = existingBooks.get(bookDTO.getId());
+            if (book == null) {
+                results.add(new BookBatchResultDTO(index, BookBatchResultDTO.Status.NOT_FOUND, bookDTO.getId(), bookDTO.getTitle()));
+                continue;
+            }
+            book.setTitle(bookDTO.getTitle());
+            book.setAuthor(bookDTO.getAuthor());
+            book.setPublicationDate(bookDTO.getPublicationDate());
+            results.add(new BookBatchResultDTO(index, BookBatchResultDTO.Status.UPDATED, book.getId(), book.getTitle()));
+            updated.add(book);
+        }
+
+        try {
+            bookRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicateTitle(e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new BookModifiedConcurrentlyException(ExceptionMessagesEnum.BOOK_MODIFIED_CONCURRENTLY.getMessage());
+        }
+        updated.forEach(book -> eventPublisher.publishEvent(new BookUpdatedEvent(BookDTOMapper.toDTO(book))));
+        return results;
     }
 
     /**
@@ -78,7 +211,81 @@ public class BookCommandServiceImpl implements BookCommandService {
      * @param id the unique identifier of the book to delete.
      */
     @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
     public void deleteBook(Long id) {
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(new BookDeletedEvent(id));
+    }
+
+    /**
+     * Collects the titles of the given books that already exist in the database.
+     *
+     * @param bookDTOs the books about to be created.
+     * @return a mutable set of taken titles.
+     */
+    private Set<String> findExistingTitles(List<BookDTO> bookDTOs) {
+        List<String> titles = bookDTOs.stream().map(BookDTO::getTitle).distinct().toList();
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < titles.size(); from += TITLE_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = titles.subList(from, Math.min(from + TITLE_LOOKUP_CHUNK_SIZE, titles.size()));
+            existing.addAll(bookRepository.findExistingTitles(chunk));
+        }
+        return existing;
+    }
+
+    /**
+     * Sends the pending inserts to the database, publishes their events and detaches them from
+     * the persistence context. Events are built after the flush, once generated columns are set.
+     *
+     * @param pending the books persisted since the last flush; cleared by this method.
+     */
+    private void flushAndClear(List<Book> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            // Flushed through the repository proxy, which translates the constraint violation
+            bookRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicateTitle(e);
+        }
+        pending.forEach(book -> eventPublisher.publishEvent(new BookCreatedEvent(BookDTOMapper.toDTO(book))));
+        entityManager.clear();
+        pending.clear();
+    }
+
+    /**
+     * Saves the book and flushes immediately, so that a duplicate title surfaces here
+     * as a {@link BookAlreadyExistsException} rather than at commit time. A stale version
+     * surfaces as a {@link BookModifiedConcurrentlyException}.
+     *
+     * @param book the book to save.
+     * @return the saved book.
+     */
+    private Book saveAndFlush(Book book) {
+        try {
+            return bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicateTitle(e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new BookModifiedConcurrentlyException(ExceptionMessagesEnum.BOOK_MODIFIED_CONCURRENTLY.getMessage());
+        }
+    }
+
+    /**
+     * Translates a violation of the unique title constraint into a {@link BookAlreadyExistsException}.
+     * Any other integrity violation is returned unchanged.
+     *
+     * @param e the exception raised by the persistence layer.
+     * @return the exception to throw.
+     */
+    private RuntimeException translateDuplicateTitle(DataIntegrityViolationException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof org.hibernate.exception.ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Book.UNIQUE_TITLE_CONSTRAINT)) {
+            return new BookAlreadyExistsException(ExceptionMessagesEnum.BOOK_ALREADY_EXISTS.getMessage());
+        }
+        return e;
     }
 }
\ No newline at end of file
@@ -1,47 +1,133 @@
 package wakeb.example.microservice.service.implementation;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import wakeb.example.microservice.config.CacheConfig;
+import wakeb.example.microservice.config.MetricsConfig;
+import wakeb.example.microservice.config.ReadReplicaRoutingDataSource;
+import wakeb.example.microservice.dto.book.BookCatalogVersionDTO;
+import wakeb.example.microservice.dto.book.BookCursorCodec;
 import wakeb.example.microservice.dto.book.BookDTO;
 import wakeb.example.microservice.dto.book.BookDTOMapper;
+import wakeb.example.microservice.dto.book.BookLookupDTO;
+import wakeb.example.microservice.dto.book.BookPageDTO;
+import wakeb.example.microservice.dto.book.BookSearchCriteriaDTO;
+import wakeb.example.microservice.dto.book.BookVersionDTO;
 import wakeb.example.microservice.exception.custom.BookNotFoundException;
+import wakeb.example.microservice.exception.custom.TooManyIdsException;
 import wakeb.example.microservice.exception.ExceptionMessagesEnum;
 import wakeb.example.microservice.model.Book;
 import wakeb.example.microservice.repository.BookRepository;
+import wakeb.example.microservice.repository.BookSpecifications;
+import wakeb.example.microservice.search.BookTextIndex;
+import wakeb.example.microservice.serialization.BookJsonWriter;
 import wakeb.example.microservice.service.interfaces.BookQueryService;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 /**
  * Implementation of the {@link BookQueryService} interface that handles query operations
- * for retrieving book information.
+ * for retrieving book information. Every database read runs in a read-only transaction, which
+ * sends it to the read replica when one is configured.
  */
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class BookQueryServiceImpl implements BookQueryService {
 
+    /**
+     * Upper bound for the page size a client may request.
+     */
+    public static final int MAX_PAGE_LIMIT = 1000;
+
+    /**
+     * Name of the counter of {@link #findBookById(Long)} and {@link #findAllBooks()} calls served
+     * by a concurrent identical call, tagged by operation.
+     */
+    public static final String COALESCED_COUNTER = "books.query.coalesced";
+
+    /**
+     * Upper bound for the number of identifiers a batch lookup may ask for.
+     */
+    public static final int MAX_LOOKUP_IDS = 1000;
+
+    /**
+     * Number of identifiers bound to each IN clause of a batch lookup.
+     */
+    public static final int LOOKUP_CHUNK_SIZE = 200;
+
     private final BookRepository bookRepository;
 
+    private final EntityManager entityManager;
+
+    private final BookTextIndex bookTextIndex;
+
+    private final CacheManager cacheManager;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final SingleFlight<ReadReplicaRoutingDataSource.Route, List<BookDTO>> allBooksFlights;
+
     /**
      * Constructor for dependency injection.
      *
      * @param bookRepository the repository for accessing book data.
+     * @param entityManager  the entity manager used to detach streamed entities.
+     * @param bookTextIndex  the full-text index over titles and authors.
+     * @param cacheManager       the cache manager holding the {@link CacheConfig#BOOKS_CACHE} cache.
+     * @param transactionManager the transaction manager running the read-only transaction of coalesced loads.
+     * @param meterRegistry      the registry receiving the coalesced-call counter.
      */
     @Autowired
-    public BookQueryServiceImpl(BookRepository bookRepository) {
+    public BookQueryServiceImpl(BookRepository bookRepository, EntityManager entityManager, BookTextIndex bookTextIndex,
+                                CacheManager cacheManager, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
         this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.bookTextIndex = bookTextIndex;
+        this.cacheManager = cacheManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.allBooksFlights = new SingleFlight<>(meterRegistry.counter(COALESCED_COUNTER, "operation", "findAllBooks"));
     }
 
 
     /**
-     * Retrieves a book by its unique identifier.
+     * Retrieves a book by its unique identifier. Results are served from the
+     * {@link CacheConfig#BOOKS_CACHE} cache when present; misses are loaded from the database.
+     * Concurrent misses for the same id wait in the cache for a single load, before any of them
+     * opens a transaction or takes a connection; the waiting callers are counted by
+     * {@link #COALESCED_COUNTER}.
      *
      * @param id the unique identifier of the book.
      * @return the book as a data transfer object.
      * @throws BookNotFoundException if the book with the specified id is not found.
      */
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id", sync = true,
+            cacheResolver = CacheConfig.BOOK_BY_ID_CACHE_RESOLVER)
     public BookDTO findBookById(Long id) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new BookNotFoundException(
@@ -52,14 +138,237 @@ public class BookQueryServiceImpl implements BookQueryService {
 
 
     /**
-     * Retrieves all books.
+     * Retrieves the version and modification time of a book. Only these two columns are read,
+     * so revalidating an unchanged book costs a primary key lookup and no mapping.
+     *
+     * @param id the unique identifier of the book.
+     * @return the validators of the book.
+     * @throws BookNotFoundException if the book with the specified id is not found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BookVersionDTO findBookVersion(Long id) {
+        return bookRepository.findVersionById(id)
+                .orElseThrow(() -> new BookNotFoundException(
+                        ExceptionMessagesEnum.BOOK_NOT_FOUND.getMessage()
+                ));
+    }
+
+    /**
+     * Computes the aggregate version of the whole catalog with a single aggregate query.
+     *
+     * @return the validators of the catalog.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BookCatalogVersionDTO findCatalogVersion() {
+        return bookRepository.findCatalogVersion();
+    }
+
+
+    /**
+     * Retrieves all books. Concurrent calls share a single query and the resulting list; only
+     * the caller running the query opens a transaction, so waiting callers hold no connection.
+     * Callers pinned to the primary to read their own writes never share a result read from the replica.
      *
      * @return a list of data transfer objects representing all books.
      */
     @Override
     public List<BookDTO> findAllBooks() {
-        return bookRepository.findAll().stream()
-                .map(BookDTOMapper::toDTO)
-                .collect(Collectors.toList());
+        return allBooksFlights.execute(ReadReplicaRoutingDataSource.readOnlyRoute(),
+                () -> readOnlyTransaction.execute(status -> toDTOs(bookRepository.findAll())));
+    }
+
+    /**
+     * Finds the books with the given identifiers. Books present in the {@link CacheConfig#BOOKS_CACHE}
+     * cache are taken from it before any transaction is opened, so a batch of cache hits takes no
+     * connection. The rest are loaded in one read-only transaction with IN queries of at most
+     * {@link #LOOKUP_CHUNK_SIZE} identifiers and added to the cache once it has committed.
+     * Repeated identifiers are looked up and returned once.
+     *
+     * @param ids the identifiers of the books, in the order the books are returned.
+     * @return the books found, in request order, and the identifiers without a book.
+     * @throws TooManyIdsException if more than {@link #MAX_LOOKUP_IDS} identifiers are requested.
+     */
+    @Override
+    public BookLookupDTO findBooksByIds(List<Long> ids) {
+        if (ids.size() > MAX_LOOKUP_IDS) {
+            throw new TooManyIdsException(ExceptionMessagesEnum.TOO_MANY_IDS.getMessage());
+        }
+        LinkedHashSet<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        Map<Long, BookDTO> found = new HashMap<>(requested.size() * 2);
+        Cache cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        List<Long> misses = new ArrayList<>(requested.size());
+        for (Long id : requested) {
+            BookDTO cached = cache != null ? cache.get(id, BookDTO.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            readOnlyTransaction.executeWithoutResult(status -> loadMisses(misses, cache, found));
+        }
+        return toLookup(requested, found);
+    }
+
+
+    /**
+     * Retrieves a page of books using keyset pagination. One extra row is fetched to find out
+     * whether another page follows, so no count query is needed.
+     *
+     * @param after the opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of books to return, clamped to {@link #MAX_PAGE_LIMIT}.
+     * @return the page of books together with the cursor of the next page, if any.
+     * @throws wakeb.example.microservice.exception.custom.InvalidCursorException if the cursor is malformed.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BookPageDTO findBooksPage(String after, int limit) {
+        int pageSize = clampPageSize(limit);
+        List<Book> rows = bookRepository.findByIdGreaterThanOrderByIdAsc(decodeCursor(after), Limit.of(pageSize + 1));
+        return toPage(toDTOs(rows), pageSize);
+    }
+
+    /**
+     * Searches books matching the given criteria. The criteria are turned into a single query
+     * whose predicates are served by the indexes on author, title and publication date; pages
+     * are sought by identifier, like {@link #findBooksPage(String, int)}.
+     *
+     * @param criteria the search criteria; unset criteria are ignored.
+     * @param after    the opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit    the maximum number of books to return, clamped to {@link #MAX_PAGE_LIMIT}.
+     * @return the page of matching books together with the cursor of the next page, if any.
+     * @throws wakeb.example.microservice.exception.custom.InvalidCursorException if the cursor is malformed.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BookPageDTO searchBooks(BookSearchCriteriaDTO criteria, String after, int limit) {
+        int pageSize = clampPageSize(limit);
+        List<Book> rows = bookRepository.findBy(
+                BookSpecifications.matching(criteria, decodeCursor(after)),
+                query -> query.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+        return toPage(toDTOs(rows), pageSize);
+    }
+
+    /**
+     * Searches book titles and authors for the given free text. The query is answered by the
+     * {@link BookTextIndex} alone, without touching the database.
+     *
+     * @param text the free-text query.
+     * @param page the zero-based page number.
+     * @param size the number of results per page, clamped to {@link #MAX_PAGE_LIMIT}.
+     * @return the matching books of the requested page, best match first.
+     */
+    @Override
+    public List<BookDTO> searchBooksByText(String text, int page, int size) {
+        return bookTextIndex.search(text, Math.max(0, page), clampPageSize(size));
+    }
+
+    /**
+     * Streams all books to the given consumer inside a read-only transaction. Each entity is
+     * detached from the persistence context as soon as it has been handed over, so memory use
+     * stays constant regardless of the number of books.
+     *
+     * @param consumer the callback receiving each book as a data transfer object.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAllBooks(Consumer<BookDTO> consumer) {
+        try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+            books.forEach(book -> {
+                consumer.accept(BookDTOMapper.toDTO(book));
+                entityManager.detach(book);
+            });
+        }
+    }
+
+    /**
+     * Streams all books inside a read-only transaction and writes each entity straight to the
+     * generator with {@link BookJsonWriter}, so no data transfer object is created per book.
+     * Entities are detached once written, keeping memory use constant.
+     *
+     * @param generator the generator receiving the books.
+     * @throws IOException if writing to the generator fails.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void writeAllBooks(JsonGenerator generator) throws IOException {
+        try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+            books.forEach(book -> {
+                try {
+                    BookJsonWriter.write(generator, book);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                entityManager.detach(book);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    static int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+    }
+
+    static long decodeCursor(String after) {
+        // Identifiers are generated starting at 1, so 0 seeks from the beginning of the table
+        return (after == null || after.isEmpty()) ? 0L : BookCursorCodec.decode(after);
+    }
+
+    /**
+     * Builds a page from rows fetched with one extra row, which signals that another page follows.
+     */
+    static BookPageDTO toPage(List<BookDTO> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<BookDTO> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasMore
+                ? BookCursorCodec.encode(items.get(items.size() - 1).getId())
+                : null;
+        return new BookPageDTO(items, nextCursor);
+    }
+
+    /**
+     * Orders the books found by a batch lookup as requested and lists the identifiers not found.
+     */
+    static BookLookupDTO toLookup(Iterable<Long> requested, Map<Long, BookDTO> found) {
+        List<BookDTO> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            BookDTO book = found.get(id);
+            if (book != null) {
+                items.add(book);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BookLookupDTO(items, missingIds);
+    }
+
+    private void loadMisses(List<Long> misses, Cache cache, Map<Long, BookDTO> found) {
+        // Like @Cacheable, populate the cache only with what a committed transaction has read
+        Cache loadedCache = cache != null ? new TransactionAwareCacheDecorator(cache) : null;
+        for (int from = 0; from < misses.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = misses.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, misses.size()));
+            for (Book book : bookRepository.findAllById(chunk)) {
+                BookDTO dto = BookDTOMapper.toDTO(book);
+                found.put(dto.getId(), dto);
+                if (loadedCache != null) {
+                    loadedCache.put(dto.getId(), dto);
+                }
+            }
+        }
+    }
+
+    private static List<BookDTO> toDTOs(List<Book> rows) {
+        List<BookDTO> dtos = new ArrayList<>(rows.size());
+        for (Book row : rows) {
+            dtos.add(BookDTOMapper.toDTO(row));
+        }
+        return dtos;
     }
-}
\ No newline at end of file
+}
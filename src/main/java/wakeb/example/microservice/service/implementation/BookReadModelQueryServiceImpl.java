@@ -0,0 +1,230 @@
+package wakeb.example.microservice.service.implementation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import wakeb.example.microservice.config.MetricsConfig;
+import wakeb.example.microservice.dto.book.BookCatalogVersionDTO;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookLookupDTO;
+import wakeb.example.microservice.dto.book.BookPageDTO;
+import wakeb.example.microservice.dto.book.BookSearchCriteriaDTO;
+import wakeb.example.microservice.dto.book.BookVersionDTO;
+import wakeb.example.microservice.exception.ExceptionMessagesEnum;
+import wakeb.example.microservice.exception.custom.BookNotFoundException;
+import wakeb.example.microservice.exception.custom.TooManyIdsException;
+import wakeb.example.microservice.readmodel.BookReadModel;
+import wakeb.example.microservice.serialization.BookJsonWriter;
+import wakeb.example.microservice.service.interfaces.BookQueryService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the {@link BookQueryService} interface serving every query from the
+ * in-memory {@link BookReadModel}, without opening a transaction or a JDBC connection.
+ * Enabled with {@code books.read-model.enabled=true}. Until the read model has been loaded,
+ * and for full-text searches, queries are delegated to the database-backed {@link BookQueryServiceImpl}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "books.read-model", name = "enabled", havingValue = "true")
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class BookReadModelQueryServiceImpl implements BookQueryService {
+
+    private final BookReadModel readModel;
+
+    private final BookQueryServiceImpl databaseQueryService;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param readModel            the in-memory read model.
+     * @param databaseQueryService the database-backed service used until the read model is ready.
+     */
+    @Autowired
+    public BookReadModelQueryServiceImpl(BookReadModel readModel, BookQueryServiceImpl databaseQueryService) {
+        this.readModel = readModel;
+        this.databaseQueryService = databaseQueryService;
+    }
+
+    /**
+     * Retrieves a book by its unique identifier from the read model.
+     *
+     * @param id the unique identifier of the book.
+     * @return the book as a data transfer object.
+     * @throws BookNotFoundException if the book with the specified id is not found.
+     */
+    @Override
+    public BookDTO findBookById(Long id) {
+        if (!readModel.isReady()) {
+            return databaseQueryService.findBookById(id);
+        }
+        return readModel.find(id).orElseThrow(() -> new BookNotFoundException(
+                ExceptionMessagesEnum.BOOK_NOT_FOUND.getMessage()
+        ));
+    }
+
+    /**
+     * Retrieves the version and modification time of a book from the read model.
+     *
+     * @param id the unique identifier of the book.
+     * @return the validators of the book.
+     * @throws BookNotFoundException if the book with the specified id is not found.
+     */
+    @Override
+    public BookVersionDTO findBookVersion(Long id) {
+        if (!readModel.isReady()) {
+            return databaseQueryService.findBookVersion(id);
+        }
+        return readModel.findVersion(id).orElseThrow(() -> new BookNotFoundException(
+                ExceptionMessagesEnum.BOOK_NOT_FOUND.getMessage()
+        ));
+    }
+
+    /**
+     * Returns the aggregate version of the catalog, maintained incrementally by the read model.
+     *
+     * @return the validators of the catalog.
+     */
+    @Override
+    public BookCatalogVersionDTO findCatalogVersion() {
+        return readModel.isReady() ? readModel.getCatalogVersion() : databaseQueryService.findCatalogVersion();
+    }
+
+    /**
+     * Retrieves all books from the read model, in identifier order.
+     *
+     * @return a list of data transfer objects representing all books.
+     */
+    @Override
+    public List<BookDTO> findAllBooks() {
+        if (!readModel.isReady()) {
+            return databaseQueryService.findAllBooks();
+        }
+        List<BookDTO> books = new ArrayList<>();
+        readModel.forEach(books::add);
+        return books;
+    }
+
+    /**
+     * Finds the books with the given identifiers in the read model.
+     *
+     * @param ids the identifiers of the books, in the order the books are returned.
+     * @return the books found, in request order, and the identifiers without a book.
+     * @throws TooManyIdsException if more than {@link BookQueryServiceImpl#MAX_LOOKUP_IDS} identifiers are requested.
+     */
+    @Override
+    public BookLookupDTO findBooksByIds(List<Long> ids) {
+        if (!readModel.isReady()) {
+            return databaseQueryService.findBooksByIds(ids);
+        }
+        if (ids.size() > BookQueryServiceImpl.MAX_LOOKUP_IDS) {
+            throw new TooManyIdsException(ExceptionMessagesEnum.TOO_MANY_IDS.getMessage());
+        }
+        LinkedHashSet<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        Map<Long, BookDTO> found = new HashMap<>(requested.size() * 2);
+        for (Long id : requested) {
+            readModel.find(id).ifPresent(book -> found.put(id, book));
+        }
+        return BookQueryServiceImpl.toLookup(requested, found);
+    }
+
+    /**
+     * Retrieves a page of books from the read model, using the same cursors as the database.
+     *
+     * @param after the opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of books to return, clamped to {@link BookQueryServiceImpl#MAX_PAGE_LIMIT}.
+     * @return the page of books together with the cursor of the next page, if any.
+     */
+    @Override
+    public BookPageDTO findBooksPage(String after, int limit) {
+        if (!readModel.isReady()) {
+            return databaseQueryService.findBooksPage(after, limit);
+        }
+        int pageSize = BookQueryServiceImpl.clampPageSize(limit);
+        return BookQueryServiceImpl.toPage(
+                readModel.findAfter(BookQueryServiceImpl.decodeCursor(after), pageSize + 1), pageSize);
+    }
+
+    /**
+     * Searches the read model for books matching the given criteria.
+     *
+     * @param criteria the search criteria; unset criteria are ignored.
+     * @param after    the opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit    the maximum number of books to return, clamped to {@link BookQueryServiceImpl#MAX_PAGE_LIMIT}.
+     * @return the page of matching books together with the cursor of the next page, if any.
+     */
+    @Override
+    public BookPageDTO searchBooks(BookSearchCriteriaDTO criteria, String after, int limit) {
+        if (!readModel.isReady()) {
+            return databaseQueryService.searchBooks(criteria, after, limit);
+        }
+        int pageSize = BookQueryServiceImpl.clampPageSize(limit);
+        return BookQueryServiceImpl.toPage(
+                readModel.search(criteria, BookQueryServiceImpl.decodeCursor(after), pageSize + 1), pageSize);
+    }
+
+    /**
+     * Searches book titles and authors for free text, using the full-text index.
+     *
+     * @param text the free-text query.
+     * @param page the zero-based page number.
+     * @param size the number of results per page.
+     * @return the matching books of the requested page, best match first.
+     */
+    @Override
+    public List<BookDTO> searchBooksByText(String text, int page, int size) {
+        return databaseQueryService.searchBooksByText(text, page, size);
+    }
+
+    /**
+     * Passes every book held by the read model to the given consumer, in identifier order.
+     *
+     * @param consumer the callback receiving each book as a data transfer object.
+     */
+    @Override
+    public void exportAllBooks(Consumer<BookDTO> consumer) {
+        if (!readModel.isReady()) {
+            databaseQueryService.exportAllBooks(consumer);
+            return;
+        }
+        readModel.forEach(consumer);
+    }
+
+    /**
+     * Writes every book held by the read model to the given generator, in identifier order.
+     *
+     * @param generator the generator receiving the books.
+     * @throws IOException if writing to the generator fails.
+     */
+    @Override
+    public void writeAllBooks(JsonGenerator generator) throws IOException {
+        if (!readModel.isReady()) {
+            databaseQueryService.writeAllBooks(generator);
+            return;
+        }
+        try {
+            readModel.forEach(book -> {
+                try {
+                    BookJsonWriter.write(generator, book);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
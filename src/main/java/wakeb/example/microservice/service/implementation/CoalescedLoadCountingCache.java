@@ -0,0 +1,103 @@
+package wakeb.example.microservice.service.implementation;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache counting the synchronized lookups served by another caller's load. With
+ * {@code @Cacheable(sync = true)} concurrent misses for a key wait inside the cache for a single
+ * load; a caller that finds a load in flight when it arrives and does not run the loader itself
+ * waited on it. Plain hits are not counted. Every other operation is passed through.
+ */
+public final class CoalescedLoadCountingCache implements Cache {
+
+    private final Cache delegate;
+
+    private final Counter coalesced;
+
+    private final ConcurrentMap<Object, Boolean> loading = new ConcurrentHashMap<>();
+
+    /**
+     * Wraps a cache.
+     *
+     * @param delegate  the cache holding the values.
+     * @param coalesced the counter incremented for every lookup served by another caller's load.
+     */
+    public CoalescedLoadCountingCache(Cache delegate, Counter coalesced) {
+        this.delegate = delegate;
+        this.coalesced = coalesced;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean loadInFlight = loading.containsKey(key);
+        boolean[] loaded = {false};
+        T value = delegate.get(key, () -> {
+            loaded[0] = true;
+            loading.put(key, Boolean.TRUE);
+            try {
+                return valueLoader.call();
+            } finally {
+                loading.remove(key);
+            }
+        });
+        if (loadInFlight && !loaded[0]) {
+            coalesced.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,75 @@
+package wakeb.example.microservice.service.implementation;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one. The first caller runs the loader; callers
+ * arriving while it runs wait on its {@link CompletableFuture} and share its result or exception.
+ * Nothing is kept once the call completes, so a caller may get a result read up to one load
+ * before it arrived, never older.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the results.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter coalesced;
+
+    /**
+     * Creates a single-flight group.
+     *
+     * @param coalesced the counter incremented for every call served by another caller's load.
+     */
+    public SingleFlight(Counter coalesced) {
+        this.coalesced = coalesced;
+    }
+
+    /**
+     * Returns the result of the loader, joining a load already running for the key if any.
+     *
+     * @param key    the key identifying identical calls.
+     * @param loader the load run when no call for the key is in flight.
+     * @return the loaded value, possibly shared with concurrent callers.
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            coalesced.increment();
+            return join(running);
+        }
+        try {
+            V value = loader.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Rethrow the loader's own exception, so shared failures map to the same responses
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package wakeb.example.microservice.service.interfaces;
 
+import wakeb.example.microservice.dto.book.BookBatchResultDTO;
 import wakeb.example.microservice.dto.book.BookDTO;
 
+import java.util.List;
+
 /**
  * Service interface defining command operations for books such as create, update, and delete.
  */
@@ -15,6 +18,15 @@ public interface BookCommandService {
      */
     BookDTO createBook(BookDTO bookDTO);
 
+    /**
+     * Creates many books at once. Items whose title is already taken, either by an existing
+     * book or by an earlier item of the same request, are reported as duplicates and skipped.
+     *
+     * @param bookDTOs the data transfer objects containing the details of each book.
+     * @return one result per submitted item, in submission order.
+     */
+    List<BookBatchResultDTO> createBooks(List<BookDTO> bookDTOs);
+
     /**
      * Updates an existing book.
      *
@@ -24,6 +36,16 @@ public interface BookCommandService {
      */
     BookDTO updateBook(Long id, BookDTO bookDTO);
 
+    /**
+     * Updates many books at once. Each item carries the identifier of the book it replaces;
+     * items whose book does not exist are reported as not found and skipped. Cached copies of
+     * the updated books are not refreshed, so callers must evict them.
+     *
+     * @param bookDTOs the data transfer objects containing the identifier and new details of each book.
+     * @return one result per submitted item, in submission order.
+     */
+    List<BookBatchResultDTO> updateBooks(List<BookDTO> bookDTOs);
+
     /**
      * Deletes a book by its unique identifier.
      *
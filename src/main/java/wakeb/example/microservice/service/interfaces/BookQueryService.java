@@ -1,8 +1,16 @@
 package wakeb.example.microservice.service.interfaces;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import wakeb.example.microservice.dto.book.BookCatalogVersionDTO;
 import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookLookupDTO;
+import wakeb.example.microservice.dto.book.BookPageDTO;
+import wakeb.example.microservice.dto.book.BookSearchCriteriaDTO;
+import wakeb.example.microservice.dto.book.BookVersionDTO;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service interface defining query operations for retrieving books.
@@ -17,10 +25,79 @@ public interface BookQueryService {
      */
     BookDTO findBookById(Long id);
 
+    /**
+     * Finds the version and modification time of a book without loading it.
+     *
+     * @param id the unique identifier of the book.
+     * @return the validators of the book.
+     */
+    BookVersionDTO findBookVersion(Long id);
+
+    /**
+     * Computes the aggregate version of the whole catalog.
+     *
+     * @return the validators of the catalog.
+     */
+    BookCatalogVersionDTO findCatalogVersion();
+
     /**
      * Retrieves all books.
      *
      * @return a list of data transfer objects representing all books.
      */
     List<BookDTO> findAllBooks();
-}
\ No newline at end of file
+
+    /**
+     * Finds the books with the given identifiers in one batch.
+     *
+     * @param ids the identifiers of the books, in the order the books are returned.
+     * @return the books found, in request order, and the identifiers without a book.
+     */
+    BookLookupDTO findBooksByIds(List<Long> ids);
+
+    /**
+     * Retrieves a page of books using keyset pagination.
+     *
+     * @param after the opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of books to return.
+     * @return the page of books together with the cursor of the next page, if any.
+     */
+    BookPageDTO findBooksPage(String after, int limit);
+
+    /**
+     * Searches books matching the given criteria, using keyset pagination.
+     *
+     * @param criteria the search criteria; unset criteria are ignored.
+     * @param after    the opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param limit    the maximum number of books to return.
+     * @return the page of matching books together with the cursor of the next page, if any.
+     */
+    BookPageDTO searchBooks(BookSearchCriteriaDTO criteria, String after, int limit);
+
+    /**
+     * Searches book titles and authors for the given free text, best match first.
+     *
+     * @param text the free-text query.
+     * @param page the zero-based page number.
+     * @param size the number of results per page.
+     * @return the matching books of the requested page.
+     */
+    List<BookDTO> searchBooksByText(String text, int page, int size);
+
+    /**
+     * Passes every book, one at a time, to the given consumer without holding the
+     * whole catalog in memory.
+     *
+     * @param consumer the callback receiving each book as a data transfer object.
+     */
+    void exportAllBooks(Consumer<BookDTO> consumer);
+
+    /**
+     * Writes every book to the given generator as one JSON object per line, without holding the
+     * whole catalog in memory.
+     *
+     * @param generator the generator receiving the books.
+     * @throws IOException if writing to the generator fails.
+     */
+    void writeAllBooks(JsonGenerator generator) throws IOException;
+}
@@ -0,0 +1,300 @@
+package wakeb.example.microservice.writebehind;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local newline-delimited JSON journal of the commands waiting in the write-behind queue.
+ * Every accepted command is written, then forced to disk by {@link #sync(long)} before the client
+ * is answered; the identifiers of written commands are appended afterwards. On startup the
+ * commands without a completion record are recovered and the file is compacted to them. While
+ * running, the file is compacted the same way whenever it grows past {@code compactionSize}, so
+ * it stays proportional to the queued commands instead of to every command ever accepted.
+ * <p>
+ * Forces are shared (group commit): the first caller of {@code sync} forces the file on behalf
+ * of every record written so far, and callers arriving meanwhile wait for that force or run the
+ * next one together, so concurrent submissions cost one force per round rather than one each.
+ */
+public class BookWriteBehindJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookWriteBehindJournal.class);
+
+    private final Path file;
+
+    private final ObjectMapper objectMapper;
+
+    private final long compactionSize;
+
+    private final Map<String, BookWriteCommand> pending = new LinkedHashMap<>();
+
+    private volatile FileChannel channel;
+
+    private long fileSize;
+
+    private volatile long writtenPosition;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private final Condition forced = syncLock.newCondition();
+
+    private boolean forcing;
+
+    private long forcedPosition;
+
+    /**
+     * Creates a journal backed by the given file. The file is only opened by {@link #recover()}.
+     *
+     * @param file           the journal file; parent directories are created as needed.
+     * @param objectMapper   the mapper used to write and read the records.
+     * @param compactionSize the file size above which completed commands are dropped from the file.
+     */
+    public BookWriteBehindJournal(Path file, ObjectMapper objectMapper, long compactionSize) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.compactionSize = compactionSize;
+    }
+
+    /**
+     * Reads the commands that were accepted but never written, rewrites the file to hold only
+     * those and opens it for appending. A torn last line left by a crash is ignored.
+     *
+     * @return the pending commands, in the order they were accepted.
+     * @throws IOException if the file cannot be read or rewritten.
+     */
+    public synchronized List<BookWriteCommand> recover() throws IOException {
+        pending.clear();
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    Record record;
+                    try {
+                        record = objectMapper.readValue(line, Record.class);
+                    } catch (JsonProcessingException e) {
+                        logger.warn("Skipping unreadable write-behind journal record: {}", e.getOriginalMessage());
+                        continue;
+                    }
+                    if (record.getAccepted() != null) {
+                        pending.put(record.getAccepted().getCommandId(), record.getAccepted());
+                    }
+                    if (record.getCompleted() != null) {
+                        record.getCompleted().forEach(pending::remove);
+                    }
+                }
+            }
+        }
+
+        rewrite();
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Writes an accepted command without forcing it to disk. It is cheap enough to be called
+     * under the queue lock, which keeps the journal in queue order.
+     *
+     * @param command the command to record.
+     * @return the position to pass to {@link #sync(long)} to make the record durable.
+     * @throws IOException if the record cannot be written.
+     */
+    public synchronized long write(BookWriteCommand command) throws IOException {
+        pending.put(command.getCommandId(), command);
+        return write(channel, new Record(command, null));
+    }
+
+    /**
+     * Waits until every record up to the given position has been forced to disk, forcing the
+     * file if no other caller is doing so.
+     *
+     * @param position the position returned by {@link #write(BookWriteCommand)}.
+     * @throws IOException if forcing the file fails.
+     */
+    public void sync(long position) throws IOException {
+        syncLock.lock();
+        try {
+            while (forcedPosition < position) {
+                if (forcing) {
+                    forced.awaitUninterruptibly();
+                    continue;
+                }
+                forcing = true;
+                long target = writtenPosition;
+                FileChannel out = channel;
+                boolean done = false;
+                syncLock.unlock();
+                try {
+                    out.force(false);
+                    done = true;
+                } finally {
+                    syncLock.lock();
+                    forcing = false;
+                    if (done) {
+                        forcedPosition = Math.max(forcedPosition, target);
+                    }
+                    forced.signalAll();
+                }
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Records that the given commands have been written, compacting the file if it has grown past
+     * {@code compactionSize}. The record is not forced: if it is lost, the commands are replayed
+     * and end up as duplicates or idempotent updates.
+     *
+     * @param commandIds the identifiers of the written commands.
+     * @throws IOException if the record cannot be written.
+     */
+    public synchronized void complete(Collection<String> commandIds) throws IOException {
+        if (commandIds.isEmpty()) {
+            return;
+        }
+        commandIds.forEach(pending::remove);
+        write(channel, new Record(null, new ArrayList<>(commandIds)));
+        if (fileSize >= compactionSize) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the current size of the journal file.
+     *
+     * @return the number of bytes in the file.
+     */
+    public synchronized long size() {
+        return fileSize;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Rewrites the file while no force is running. The rewritten file is forced, so every record
+     * written so far counts as durable: accepted commands are in it and completed ones are no
+     * longer needed.
+     */
+    private void compact() throws IOException {
+        syncLock.lock();
+        try {
+            while (forcing) {
+                forced.awaitUninterruptibly();
+            }
+            forcing = true;
+        } finally {
+            syncLock.unlock();
+        }
+        boolean done = false;
+        try {
+            long before = fileSize;
+            rewrite();
+            done = true;
+            logger.debug("Compacted the write-behind journal from {} to {} bytes", before, fileSize);
+        } finally {
+            syncLock.lock();
+            try {
+                forcing = false;
+                if (done) {
+                    forcedPosition = Math.max(forcedPosition, writtenPosition);
+                }
+                forced.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Replaces the file with one holding only the pending commands, forced to disk, and opens
+     * it for appending.
+     */
+    private void rewrite() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path compacted = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        long size = 0;
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.WRITE)) {
+            for (BookWriteCommand command : pending.values()) {
+                write(out, new Record(command, null));
+            }
+            out.force(true);
+            size = out.size();
+        }
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        FileChannel previous = channel;
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = size;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Writes one record.
+     *
+     * @return the number of bytes written to the live file so far, used as the position of the record.
+     */
+    private long write(FileChannel out, Record record) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(record);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        if (out == channel) {
+            writtenPosition += json.length + 1;
+            fileSize += json.length + 1;
+        }
+        return writtenPosition;
+    }
+
+    /**
+     * One line of the journal: either an accepted command or the identifiers of written commands.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Getter
+    @Setter
+    static class Record {
+
+        private BookWriteCommand accepted;
+
+        private List<String> completed;
+
+        Record() {}
+
+        Record(BookWriteCommand accepted, List<String> completed) {
+            this.accepted = accepted;
+            this.completed = completed;
+        }
+    }
+}
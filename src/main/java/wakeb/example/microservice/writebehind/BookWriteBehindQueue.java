@@ -0,0 +1,563 @@
+package wakeb.example.microservice.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.config.CacheConfig;
+import wakeb.example.microservice.dto.book.BookBatchResultDTO;
+import wakeb.example.microservice.dto.book.BookCommandStatusDTO;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.exception.ExceptionMessagesEnum;
+import wakeb.example.microservice.exception.custom.WriteQueueFullException;
+import wakeb.example.microservice.service.interfaces.BookCommandService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue of book commands written behind the request that submitted them. Clients get a
+ * command identifier straight away and follow its {@link BookCommandStatusDTO status}. A single
+ * background writer drains the queue: creates go through {@link BookCommandService#createBooks}
+ * and updates through {@link BookCommandService#updateBooks}, one transaction and JDBC batch per
+ * kind and round. Updates to a book that is still queued collapse into the latest one.
+ * If a batch fails as a whole, its commands are retried one by one so a single bad command
+ * cannot fail the others. The writer only takes commands whose journal record has been forced to
+ * disk, so a command the client was not told about is never written.
+ * Enabled with {@code books.write-behind.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "books.write-behind", name = "enabled", havingValue = "true")
+public class BookWriteBehindQueue implements SmartLifecycle {
+
+    /**
+     * Name of the gauge reporting the number of queued commands.
+     */
+    public static final String QUEUE_SIZE_GAUGE = "books.writebehind.queue.size";
+
+    /**
+     * Name of the counter of updates merged into an already queued update of the same book.
+     */
+    public static final String COALESCED_COUNTER = "books.writebehind.coalesced";
+
+    private static final Logger logger = LoggerFactory.getLogger(BookWriteBehindQueue.class);
+
+    private final BookCommandService bookCommandService;
+
+    private final CacheManager cacheManager;
+
+    private final BookWriteBehindJournal journal;
+
+    private final int capacity;
+
+    private final int maxBatchSize;
+
+    private final Cache<String, BookCommandStatusDTO> statuses;
+
+    private final Counter coalesced;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final ArrayDeque<PendingCommand> creates = new ArrayDeque<>();
+
+    private final LinkedHashMap<Long, PendingCommand> updates = new LinkedHashMap<>();
+
+    private long durablePosition;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    /**
+     * Constructor for dependency injection. Commands left in the journal by a previous run are
+     * queued again before any new command is accepted.
+     *
+     * @param bookCommandService the service writing the commands.
+     * @param cacheManager       the cache manager holding the books cache, evicted after batched updates.
+     * @param objectMapper       the mapper used for the journal records.
+     * @param bookProperties     the application settings, providing the queue settings.
+     * @param meterRegistry      the registry receiving the queue metrics.
+     * @throws IOException if the journal cannot be recovered.
+     */
+    @Autowired
+    public BookWriteBehindQueue(BookCommandService bookCommandService,
+                                CacheManager cacheManager,
+                                ObjectMapper objectMapper,
+                                BookProperties bookProperties,
+                                MeterRegistry meterRegistry) throws IOException {
+        BookProperties.WriteBehind settings = bookProperties.getWriteBehind();
+        this.bookCommandService = bookCommandService;
+        this.cacheManager = cacheManager;
+        this.capacity = Math.max(1, settings.getQueueCapacity());
+        this.maxBatchSize = Math.max(1, settings.getMaxBatchSize());
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(settings.getStatusRetention())
+                .build();
+        this.coalesced = Counter.builder(COALESCED_COUNTER)
+                .description("Queued updates replaced by a later update of the same book")
+                .register(meterRegistry);
+        Gauge.builder(QUEUE_SIZE_GAUGE, this, BookWriteBehindQueue::size)
+                .description("Commands waiting to be written")
+                .register(meterRegistry);
+
+        String journalFile = settings.getJournalFile();
+        this.journal = (journalFile == null || journalFile.isBlank())
+                ? null
+                : new BookWriteBehindJournal(Path.of(journalFile), objectMapper,
+                        settings.getJournalCompactionSize().toBytes());
+        if (journal != null) {
+            List<BookWriteCommand> recovered = journal.recover();
+            for (BookWriteCommand command : recovered) {
+                statuses.put(command.getCommandId(), pendingStatus(command));
+                enqueue(command, 0);
+            }
+            if (!recovered.isEmpty()) {
+                logger.info("Recovered {} pending book commands from {}", recovered.size(), journalFile);
+            }
+        }
+    }
+
+    /**
+     * Queues the creation of a book.
+     *
+     * @param bookDTO the data transfer object containing book details.
+     * @return the pending status of the command.
+     * @throws WriteQueueFullException if the queue holds {@code queueCapacity} commands already.
+     */
+    public BookCommandStatusDTO submitCreate(BookDTO bookDTO) {
+        BookDTO book = copyOf(null, bookDTO);
+        return submit(new BookWriteCommand(UUID.randomUUID().toString(), BookWriteCommand.Type.CREATE, book));
+    }
+
+    /**
+     * Queues the update of a book. If an update of the same book is still queued, it is replaced
+     * by this one and both commands share the outcome of the write.
+     *
+     * @param id      the unique identifier of the book to update.
+     * @param bookDTO the data transfer object containing updated book details.
+     * @return the pending status of the command.
+     * @throws WriteQueueFullException if the queue is full and no update of the book is queued.
+     */
+    public BookCommandStatusDTO submitUpdate(Long id, BookDTO bookDTO) {
+        BookDTO book = copyOf(id, bookDTO);
+        return submit(new BookWriteCommand(UUID.randomUUID().toString(), BookWriteCommand.Type.UPDATE, book));
+    }
+
+    /**
+     * Finds the status of a command accepted within the last {@code statusRetention}.
+     *
+     * @param commandId the identifier returned when the command was accepted.
+     * @return the status, or an empty optional if the command is unknown or expired.
+     */
+    public Optional<BookCommandStatusDTO> findStatus(String commandId) {
+        return Optional.ofNullable(statuses.getIfPresent(commandId));
+    }
+
+    /**
+     * Returns the number of queued commands, counting coalesced updates once.
+     *
+     * @return the queue size.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return creates.size() + updates.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes one round of queued commands: up to {@code maxBatchSize} creates and as many updates.
+     * Called by the background writer; exposed so the queue can be drained without it.
+     *
+     * @return {@code true} if any command was written.
+     */
+    public boolean flush() {
+        List<PendingCommand> createBatch = new ArrayList<>();
+        List<PendingCommand> updateBatch = new ArrayList<>();
+        lock.lock();
+        try {
+            while (!creates.isEmpty() && isDurable(creates.peek()) && createBatch.size() < maxBatchSize) {
+                createBatch.add(creates.poll());
+            }
+            Iterator<PendingCommand> queuedUpdates = updates.values().iterator();
+            while (queuedUpdates.hasNext() && updateBatch.size() < maxBatchSize) {
+                PendingCommand pending = queuedUpdates.next();
+                if (isDurable(pending)) {
+                    updateBatch.add(pending);
+                    queuedUpdates.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (createBatch.isEmpty() && updateBatch.isEmpty()) {
+            return false;
+        }
+        writeCreates(createBatch);
+        writeUpdates(updateBatch);
+        return true;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "book-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the background writer once the queue is empty. Commands accepted afterwards stay in
+     * the journal and are written on the next start. If the writer is still draining after 30
+     * seconds, the journal is left open so its running batch can still record completions, and
+     * the remaining commands are replayed on the next start.
+     */
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (writer != null) {
+                writer.join(TimeUnit.SECONDS.toMillis(30));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer != null && writer.isAlive()) {
+            logger.warn("Write-behind writer still busy on shutdown with {} commands queued; "
+                    + "unwritten commands are replayed from the journal on the next start", size());
+            return;
+        }
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close the write-behind journal: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server, so requests still in flight can be queued and drained.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private BookCommandStatusDTO submit(BookWriteCommand command) {
+        BookCommandStatusDTO status = pendingStatus(command);
+        long journalPosition = 0;
+        lock.lock();
+        try {
+            boolean merges = command.getType() == BookWriteCommand.Type.UPDATE
+                    && updates.containsKey(command.getBook().getId());
+            if (!merges && creates.size() + updates.size() >= capacity) {
+                throw new WriteQueueFullException(ExceptionMessagesEnum.WRITE_QUEUE_FULL.getMessage());
+            }
+            // Written before it becomes visible to the writer, so a completion is never recorded first
+            if (journal != null) {
+                journalPosition = journal.write(command);
+            }
+            statuses.put(command.getCommandId(), status);
+            if (merges) {
+                coalesced.increment();
+            }
+            enqueue(command, journalPosition);
+            if (journal == null) {
+                notEmpty.signal();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+        if (journal == null) {
+            return status;
+        }
+        // Forced outside the queue lock, so concurrent submissions share one force
+        try {
+            journal.sync(journalPosition);
+        } catch (IOException e) {
+            if (withdraw(command, journalPosition)) {
+                throw new UncheckedIOException(e);
+            }
+            // A later submission forced the record meanwhile, so the command stands
+            return status;
+        }
+        lock.lock();
+        try {
+            durablePosition = Math.max(durablePosition, journalPosition);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return status;
+    }
+
+    private void enqueue(BookWriteCommand command, long journalPosition) {
+        lock.lock();
+        try {
+            if (command.getType() == BookWriteCommand.Type.CREATE) {
+                creates.add(new PendingCommand(command, journalPosition));
+                return;
+            }
+            PendingCommand queued = updates.get(command.getBook().getId());
+            if (queued == null) {
+                updates.put(command.getBook().getId(), new PendingCommand(command, journalPosition));
+            } else {
+                queued.merge(command, journalPosition);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes back a command whose journal record could not be forced, unless a later force made it
+     * durable anyway. Its completion is recorded so a record that reaches the disk is not replayed.
+     *
+     * @return {@code true} if the command was taken back and the client must be told it failed.
+     */
+    private boolean withdraw(BookWriteCommand command, long journalPosition) {
+        lock.lock();
+        try {
+            if (journalPosition <= durablePosition) {
+                return false;
+            }
+            if (command.getType() == BookWriteCommand.Type.CREATE) {
+                creates.removeIf(pending -> pending.commandIds.contains(command.getCommandId()));
+            } else {
+                PendingCommand queued = updates.get(command.getBook().getId());
+                if (queued != null && queued.withdraw(command.getCommandId())) {
+                    updates.remove(command.getBook().getId());
+                }
+            }
+            statuses.put(command.getCommandId(), new BookCommandStatusDTO(command.getCommandId(),
+                    BookCommandStatusDTO.Status.FAILED, command.getBook().getId(), ExceptionMessagesEnum.WRITE_JOURNAL_FAILED.getMessage()));
+            // Lets a stopping writer notice that the queue has emptied
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            journal.complete(List.of(command.getCommandId()));
+        } catch (IOException e) {
+            logger.warn("Failed to record the withdrawal of command {}: {}", command.getCommandId(), e.getMessage());
+        }
+        return true;
+    }
+
+    private boolean isDurable(PendingCommand pending) {
+        return pending.journalPosition() <= durablePosition;
+    }
+
+    private boolean hasDurableCommand() {
+        return (!creates.isEmpty() && isDurable(creates.peek()))
+                || updates.values().stream().anyMatch(this::isDurable);
+    }
+
+    private void drain() {
+        while (true) {
+            lock.lock();
+            try {
+                // Commands still being forced are waited for, even when stopping
+                while (!hasDurableCommand()) {
+                    if (!running && creates.isEmpty() && updates.isEmpty()) {
+                        return;
+                    }
+                    notEmpty.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                logger.error("Write-behind round failed", e);
+            }
+        }
+    }
+
+    private void writeCreates(List<PendingCommand> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<BookBatchResultDTO> results = bookCommandService.createBooks(batch.stream().map(PendingCommand::book).toList());
+            for (BookBatchResultDTO result : results) {
+                PendingCommand pending = batch.get(result.getIndex());
+                if (result.getStatus() == BookBatchResultDTO.Status.CREATED) {
+                    pending.complete(BookCommandStatusDTO.Status.APPLIED, result.getId(), null);
+                } else {
+                    pending.complete(BookCommandStatusDTO.Status.FAILED, null, ExceptionMessagesEnum.BOOK_ALREADY_EXISTS.getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Batch of {} queued creates failed, writing them one by one: {}", batch.size(), e.getMessage());
+            for (PendingCommand pending : batch) {
+                try {
+                    BookDTO created = bookCommandService.createBook(pending.book());
+                    pending.complete(BookCommandStatusDTO.Status.APPLIED, created.getId(), null);
+                } catch (RuntimeException ex) {
+                    pending.complete(BookCommandStatusDTO.Status.FAILED, null, ex.getMessage());
+                }
+            }
+        }
+        recordCompleted(batch);
+    }
+
+    private void writeUpdates(List<PendingCommand> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<BookBatchResultDTO> results = bookCommandService.updateBooks(batch.stream().map(PendingCommand::book).toList());
+            for (BookBatchResultDTO result : results) {
+                PendingCommand pending = batch.get(result.getIndex());
+                if (result.getStatus() == BookBatchResultDTO.Status.UPDATED) {
+                    pending.complete(BookCommandStatusDTO.Status.APPLIED, result.getId(), null);
+                } else {
+                    pending.complete(BookCommandStatusDTO.Status.FAILED, result.getId(), ExceptionMessagesEnum.BOOK_NOT_FOUND.getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Batch of {} queued updates failed, writing them one by one: {}", batch.size(), e.getMessage());
+            for (PendingCommand pending : batch) {
+                Long id = pending.book().getId();
+                try {
+                    bookCommandService.updateBook(id, pending.book());
+                    pending.complete(BookCommandStatusDTO.Status.APPLIED, id, null);
+                } catch (RuntimeException ex) {
+                    pending.complete(BookCommandStatusDTO.Status.FAILED, id, ex.getMessage());
+                }
+            }
+        }
+        org.springframework.cache.Cache booksCache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        if (booksCache != null) {
+            batch.forEach(pending -> booksCache.evict(pending.book().getId()));
+        }
+        recordCompleted(batch);
+    }
+
+    private void recordCompleted(List<PendingCommand> batch) {
+        List<String> commandIds = new ArrayList<>();
+        for (PendingCommand pending : batch) {
+            commandIds.addAll(pending.commandIds);
+            pending.commandIds.forEach(commandId -> statuses.put(commandId,
+                    new BookCommandStatusDTO(commandId, pending.status, pending.bookId, pending.detail)));
+        }
+        if (journal != null) {
+            try {
+                journal.complete(commandIds);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static BookCommandStatusDTO pendingStatus(BookWriteCommand command) {
+        return new BookCommandStatusDTO(command.getCommandId(), BookCommandStatusDTO.Status.PENDING,
+                command.getBook().getId(), null);
+    }
+
+    private static BookDTO copyOf(Long id, BookDTO source) {
+        return new BookDTO(id, source.getTitle(), source.getAuthor(), source.getPublicationDate());
+    }
+
+    /**
+     * A queued write together with the identifiers and journal positions of every command merged
+     * into it, in the order they were accepted.
+     */
+    private static final class PendingCommand {
+
+        private final List<String> commandIds = new ArrayList<>(1);
+
+        private final List<BookWriteCommand> commands = new ArrayList<>(1);
+
+        private final List<Long> journalPositions = new ArrayList<>(1);
+
+        private BookCommandStatusDTO.Status status;
+
+        private Long bookId;
+
+        private String detail;
+
+        private PendingCommand(BookWriteCommand command, long journalPosition) {
+            merge(command, journalPosition);
+        }
+
+        private BookDTO book() {
+            return commands.get(commands.size() - 1).getBook();
+        }
+
+        private long journalPosition() {
+            return journalPositions.get(journalPositions.size() - 1);
+        }
+
+        private void merge(BookWriteCommand newer, long journalPosition) {
+            commandIds.add(newer.getCommandId());
+            commands.add(newer);
+            journalPositions.add(journalPosition);
+        }
+
+        /**
+         * Removes a merged command, falling back to the state of the previous one.
+         *
+         * @return {@code true} if no command is left.
+         */
+        private boolean withdraw(String commandId) {
+            int index = commandIds.indexOf(commandId);
+            if (index >= 0) {
+                commandIds.remove(index);
+                commands.remove(index);
+                journalPositions.remove(index);
+            }
+            return commandIds.isEmpty();
+        }
+
+        private void complete(BookCommandStatusDTO.Status status, Long bookId, String detail) {
+            this.status = status;
+            this.bookId = bookId;
+            this.detail = detail;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package wakeb.example.microservice.writebehind;
+
+import lombok.Getter;
+import lombok.Setter;
+import wakeb.example.microservice.dto.book.BookDTO;
+
+/**
+ * A create or update accepted for asynchronous processing. For updates the book carries the
+ * identifier of the book it replaces.
+ */
+@Getter
+@Setter
+public class BookWriteCommand {
+
+    /**
+     * Kind of write requested by a command.
+     */
+    public enum Type {
+        CREATE,
+        UPDATE
+    }
+
+    private String commandId;
+
+    private Type type;
+
+    private BookDTO book;
+
+    public BookWriteCommand() {}
+
+    public BookWriteCommand(String commandId, Type type, BookDTO book) {
+        this.commandId = commandId;
+        this.type = type;
+        this.book = book;
+    }
+}
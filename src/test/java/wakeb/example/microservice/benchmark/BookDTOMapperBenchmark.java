@@ -0,0 +1,41 @@
+package wakeb.example.microservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookDTOMapper;
+import wakeb.example.microservice.model.Book;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of converting between {@link Book} entities and {@link BookDTO}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookDTOMapperBenchmark {
+
+    private Book entity;
+    private BookDTO dto;
+
+    @Setup
+    public void setUp() {
+        entity = new Book("Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1));
+        entity.setId(1L);
+        dto = new BookDTO(1L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1));
+    }
+
+    @Benchmark
+    public BookDTO toDTO() {
+        return BookDTOMapper.toDTO(entity);
+    }
+
+    @Benchmark
+    public Book toEntity() {
+        return BookDTOMapper.toEntity(dto);
+    }
+}
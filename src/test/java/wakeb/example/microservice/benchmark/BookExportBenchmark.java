@@ -0,0 +1,81 @@
+package wakeb.example.microservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookDTOMapper;
+import wakeb.example.microservice.model.Book;
+import wakeb.example.microservice.serialization.BookJsonWriter;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing a page of entities as newline-delimited JSON by mapping each one to a
+ * {@link BookDTO} and serializing it by reflection, against writing the entity fields straight
+ * to the generator with {@link BookJsonWriter}. Run with the {@code gc} profiler (enabled by the
+ * {@code benchmark} profile) and compare {@code gc.alloc.rate.norm}, the bytes allocated per export.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookExportBenchmark {
+
+    @Param({"100"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter dtoWriter;
+    private List<Book> books;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        dtoWriter = objectMapper.writerFor(BookDTO.class);
+        books = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            Book book = new Book("Title " + i, "Author " + i, LocalDate.of(2000, 1, 1).plusDays(i));
+            book.setId((long) i);
+            book.setVersion(0L);
+            books.add(book);
+        }
+    }
+
+    @Benchmark
+    public void mapToDtoAndSerializeByReflection() throws Exception {
+        try (JsonGenerator generator = newGenerator()) {
+            for (Book book : books) {
+                dtoWriter.writeValue(generator, BookDTOMapper.toDTO(book));
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeEntitiesWithHandWrittenSerializer() throws Exception {
+        try (JsonGenerator generator = newGenerator()) {
+            for (Book book : books) {
+                BookJsonWriter.write(generator, book);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private JsonGenerator newGenerator() throws Exception {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream());
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+}
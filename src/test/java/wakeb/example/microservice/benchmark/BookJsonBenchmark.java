@@ -0,0 +1,54 @@
+package wakeb.example.microservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wakeb.example.microservice.dto.book.BookDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of a single {@link BookDTO} and of a list of them,
+ * using the same settings Spring Boot applies to the application's mapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookJsonBenchmark {
+
+    @Param({"100"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private BookDTO book;
+    private List<BookDTO> books;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        book = new BookDTO(1L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1));
+        books = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            books.add(new BookDTO((long) i, "Title " + i, "Author " + i, LocalDate.of(2000, 1, 1).plusDays(i)));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeBook() throws Exception {
+        return objectMapper.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public byte[] serializeBookList() throws Exception {
+        return objectMapper.writeValueAsBytes(books);
+    }
+}
@@ -0,0 +1,90 @@
+package wakeb.example.microservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.dto.book.BookBatchResultDTO;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookPageDTO;
+import wakeb.example.microservice.service.interfaces.BookCommandService;
+import wakeb.example.microservice.service.interfaces.BookQueryService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end service calls against the application context backed by an embedded H2 database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookServiceBenchmark {
+
+    private static final int CATALOG_SIZE = 1000;
+
+    private ConfigurableApplicationContext context;
+    private BookQueryService bookQueryService;
+    private BookCommandService bookCommandService;
+    private long[] ids;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "books.search.index-directory=",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        bookQueryService = context.getBean(BookQueryService.class);
+        bookCommandService = context.getBean(BookCommandService.class);
+
+        List<BookDTO> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(new BookDTO(null, "Seed Title " + i, "Seed Author " + (i % 50), LocalDate.of(2000, 1, 1).plusDays(i)));
+        }
+        ids = bookCommandService.createBooks(catalog).stream()
+                .mapToLong(BookBatchResultDTO::getId)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookDTO findBookById() {
+        return bookQueryService.findBookById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public List<BookDTO> findAllBooks() {
+        return bookQueryService.findAllBooks();
+    }
+
+    @Benchmark
+    public BookPageDTO findBooksPage() {
+        return bookQueryService.findBooksPage(null, 100);
+    }
+
+    @Benchmark
+    public BookDTO createAndDeleteBook() {
+        BookDTO created = bookCommandService.createBook(
+                new BookDTO(null, "Benchmark Title " + sequence.incrementAndGet(), "Benchmark Author", LocalDate.of(2024, 1, 1)));
+        bookCommandService.deleteBook(created.getId());
+        return created;
+    }
+}
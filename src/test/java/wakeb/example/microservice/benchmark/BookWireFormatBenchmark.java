@@ -0,0 +1,69 @@
+package wakeb.example.microservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.serialization.BookDTOSerializer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and CBOR wire formats of a list of {@link BookDTO}s, as exchanged between
+ * the books service and the {@code BooksClient}: writing on the server and reading on the client.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookWireFormatBenchmark {
+
+    private static final TypeReference<List<BookDTO>> BOOK_LIST = new TypeReference<>() {
+    };
+
+    @Param({"100"})
+    public int listSize;
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private List<BookDTO> books;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Configured like the application's converters and the client's decoder
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .factory("cbor".equals(format) ? new CBORFactory() : new JsonFactory())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializerByType(BookDTO.class, new BookDTOSerializer())
+                .build();
+        books = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            BookDTO book = new BookDTO((long) i, "Title " + i, "Author " + i, LocalDate.of(2000, 1, 1).plusDays(i));
+            book.setVersion((long) i % 5);
+            books.add(book);
+        }
+        payload = mapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] writeBookList() throws Exception {
+        return mapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public List<BookDTO> readBookList() throws Exception {
+        return mapper.readValue(payload, BOOK_LIST);
+    }
+}
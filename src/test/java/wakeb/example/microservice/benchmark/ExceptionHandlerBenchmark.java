@@ -0,0 +1,75 @@
+package wakeb.example.microservice.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.error.ProblemDetail;
+import wakeb.example.microservice.exception.ExceptionMessagesEnum;
+import wakeb.example.microservice.exception.custom.BookNotFoundException;
+import wakeb.example.microservice.exception.handler.GlobalExceptionHandler;
+import wakeb.example.microservice.serialization.BookDTOSerializer;
+import wakeb.example.microservice.serialization.ProblemDetailSerializer;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the error path: building a domain exception, turning it into a
+ * {@link ProblemDetail} in {@link GlobalExceptionHandler}, and serializing the result.
+ * The success path, wrapping and serializing a found book, is measured alongside as a baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private WebRequest request;
+    private ObjectMapper objectMapper;
+    private BookDTO book;
+
+    @Setup
+    public void setUp() {
+        // Keep the handler's warn logging from measuring the console instead of the handler
+        ((Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class)).setLevel(Level.ERROR);
+        handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/books/42"));
+        // The hand-written serializers Spring Boot registers through @JsonComponent
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializerByType(ProblemDetail.class, new ProblemDetailSerializer())
+                .serializerByType(BookDTO.class, new BookDTOSerializer())
+                .build();
+        book = new BookDTO(42L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 6));
+        book.setVersion(3L);
+    }
+
+    @Benchmark
+    public ResponseEntity<ProblemDetail> handleBookNotFound() {
+        return handler.handleCustomException(
+                new BookNotFoundException(ExceptionMessagesEnum.BOOK_NOT_FOUND.getMessage()), request);
+    }
+
+    @Benchmark
+    public byte[] handleAndSerializeBookNotFound() throws Exception {
+        return objectMapper.writeValueAsBytes(handleBookNotFound().getBody());
+    }
+
+    @Benchmark
+    public byte[] okAndSerializeBook() throws Exception {
+        return objectMapper.writeValueAsBytes(ResponseEntity.ok(book).getBody());
+    }
+}
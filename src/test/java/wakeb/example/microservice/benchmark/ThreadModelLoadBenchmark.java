@@ -0,0 +1,76 @@
+package wakeb.example.microservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.service.interfaces.BookCommandService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test comparing platform and virtual request threads. A fixed number of client threads
+ * (more than Tomcat's default 200 worker threads) issue page requests that block on JDBC,
+ * once against a server using platform threads and once against one using virtual threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(256)
+@State(Scope.Benchmark)
+public class ThreadModelLoadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "books.jdbc.permits=10",
+                        "spring.datasource.hikari.maximum-pool-size=10",
+                        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "books.search.index-directory=",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        List<BookDTO> catalog = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            catalog.add(new BookDTO(null, "Load Title " + i, "Load Author", LocalDate.of(2000, 1, 1)));
+        }
+        context.getBean(BookCommandService.class).createBooks(catalog);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        pageRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books?limit=50")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getBooksPage() throws Exception {
+        return client.send(pageRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,81 @@
+package wakeb.example.microservice.integration.client;
+
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.client.BooksClient;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookLookupDTO;
+import wakeb.example.microservice.repository.BookRepository;
+import feign.FeignException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The client calls the application it runs in, on a free port chosen before the context starts
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:booksclient")
+@ActiveProfiles("test")
+public class BooksClientIntegrationTest {
+
+    @DynamicPropertySource
+    static void serverAndClientPort(DynamicPropertyRegistry registry) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        registry.add("server.port", () -> port);
+        registry.add("books.client.url", () -> "http://localhost:" + port);
+    }
+
+    @Autowired
+    private BooksClient booksClient;
+
+    @Autowired
+    private BookRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void booksClient_ShouldExchangeBooksAsCbor() {
+        // GIVEN & WHEN
+        BookDTO created = booksClient.createBook(
+                new BookDTO(null, "The Pragmatic Programmer", "Andrew Hunt", LocalDate.of(1999, 10, 20)));
+        BookDTO updated = booksClient.updateBook(created.getId(),
+                new BookDTO(null, "The Pragmatic Programmer, 20th Anniversary Edition", "Andrew Hunt", LocalDate.of(2019, 9, 13)));
+
+        // THEN
+        assertThat(created.getId()).isNotNull();
+        assertThat(booksClient.getBookById(created.getId()).getTitle()).isEqualTo(updated.getTitle());
+        assertThat(booksClient.getAllBooks()).extracting(BookDTO::getPublicationDate)
+                .containsExactly(LocalDate.of(2019, 9, 13));
+        BookLookupDTO lookup = booksClient.getBooksByIds(List.of(created.getId(), -1L));
+        assertThat(lookup.getItems()).extracting(BookDTO::getId).containsExactly(created.getId());
+        assertThat(lookup.getMissingIds()).containsExactly(-1L);
+    }
+
+    @Test
+    void deleteBook_ShouldRemoveTheBook() {
+        // GIVEN
+        BookDTO created = booksClient.createBook(new BookDTO(null, "Refactoring", "Martin Fowler", LocalDate.of(2018, 11, 20)));
+
+        // WHEN
+        booksClient.deleteBook(created.getId());
+
+        // THEN
+        assertThatThrownBy(() -> booksClient.getBookById(created.getId())).isInstanceOf(FeignException.NotFound.class);
+    }
+}
@@ -0,0 +1,191 @@
+package wakeb.example.microservice.integration.client;
+
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.client.BooksClient;
+import wakeb.example.microservice.client.ETagCachingClient;
+import wakeb.example.microservice.client.HedgingClient;
+import wakeb.example.microservice.dto.book.BookDTO;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The client calls a stand-in books service scripted per path, instead of the application itself
+@SpringBootTest(classes = Application.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:booksclientresilience", "books.client.hedge-initial-delay=200ms", "books.client.retry-period=10ms"})
+@ActiveProfiles("test")
+public class BooksClientResilienceIntegrationTest {
+
+    private static final CBORMapper CBOR = CBORMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private static final List<String> IF_NONE_MATCH = new CopyOnWriteArrayList<>();
+
+    private static final List<String> IDEMPOTENCY_KEYS = new CopyOnWriteArrayList<>();
+
+    private static final AtomicInteger SLOW_REQUESTS = new AtomicInteger();
+
+    private static final AtomicInteger FLAKY_REQUESTS = new AtomicInteger();
+
+    private static final AtomicInteger WRITE_REQUESTS = new AtomicInteger();
+
+    private static HttpServer server;
+
+    @DynamicPropertySource
+    static void standIn(DynamicPropertyRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/books/1", BooksClientResilienceIntegrationTest::cached);
+        server.createContext("/api/books/2", BooksClientResilienceIntegrationTest::slowOnce);
+        server.createContext("/api/books/3", BooksClientResilienceIntegrationTest::unavailableOnce);
+        server.createContext("/api/books", BooksClientResilienceIntegrationTest::createUnavailableOnce);
+        server.start();
+        registry.add("books.client.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopStandIn() {
+        server.stop(0);
+    }
+
+    @Autowired
+    private BooksClient booksClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void getBookById_ShouldAnswerNotModifiedFromTheCachedBody() {
+        // GIVEN
+        double revalidated = meterRegistry.counter(ETagCachingClient.REVALIDATED_COUNTER).count();
+        BookDTO first = booksClient.getBookById(1L);
+
+        // WHEN
+        BookDTO second = booksClient.getBookById(1L);
+
+        // THEN
+        assertThat(second.getTitle()).isEqualTo(first.getTitle()).isEqualTo("Book 1");
+        assertThat(IF_NONE_MATCH).containsExactly("none", "\"v1\"");
+        assertThat(meterRegistry.counter(ETagCachingClient.REVALIDATED_COUNTER).count()).isEqualTo(revalidated + 1);
+    }
+
+    @Test
+    void getBookById_ShouldHedgeASlowRequest() {
+        // GIVEN
+        double hedged = meterRegistry.counter(HedgingClient.HEDGED_COUNTER).count();
+        long start = System.nanoTime();
+
+        // WHEN
+        BookDTO book = booksClient.getBookById(2L);
+
+        // THEN
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(book.getTitle()).isEqualTo("Book 2");
+        assertThat(SLOW_REQUESTS).hasValue(2);
+        assertThat(meterRegistry.counter(HedgingClient.HEDGED_COUNTER).count()).isEqualTo(hedged + 1);
+    }
+
+    @Test
+    void getBookById_ShouldRetryATransientError() {
+        // GIVEN & WHEN
+        BookDTO book = booksClient.getBookById(3L);
+
+        // THEN
+        assertThat(book.getTitle()).isEqualTo("Book 3");
+        assertThat(FLAKY_REQUESTS).hasValue(2);
+    }
+
+    @Test
+    void createBook_ShouldRetryWithTheSameIdempotencyKey() {
+        // GIVEN & WHEN
+        BookDTO created = booksClient.createBook(new BookDTO(null, "Book 4", "Author", LocalDate.of(2020, 1, 1)));
+
+        // THEN
+        assertThat(created.getId()).isEqualTo(4L);
+        assertThat(WRITE_REQUESTS).hasValue(2);
+        assertThat(IDEMPOTENCY_KEYS).hasSize(2).doesNotContainNull();
+        assertThat(IDEMPOTENCY_KEYS.get(1)).isEqualTo(IDEMPOTENCY_KEYS.get(0));
+    }
+
+    private static void cached(HttpExchange exchange) throws IOException {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        IF_NONE_MATCH.add(ifNoneMatch == null ? "none" : ifNoneMatch);
+        if ("\"v1\"".equals(ifNoneMatch)) {
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("ETag", "\"v1\"");
+        send(exchange, 200, book(1L));
+    }
+
+    private static void slowOnce(HttpExchange exchange) throws IOException {
+        if (SLOW_REQUESTS.incrementAndGet() == 1) {
+            sleep(Duration.ofSeconds(3));
+        }
+        send(exchange, 200, book(2L));
+    }
+
+    private static void unavailableOnce(HttpExchange exchange) throws IOException {
+        if (FLAKY_REQUESTS.incrementAndGet() == 1) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        send(exchange, 200, book(3L));
+    }
+
+    private static void createUnavailableOnce(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        IDEMPOTENCY_KEYS.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+        if (WRITE_REQUESTS.incrementAndGet() == 1) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        send(exchange, 201, book(4L));
+    }
+
+    private static BookDTO book(Long id) {
+        return new BookDTO(id, "Book " + id, "Author", LocalDate.of(2020, 1, 1));
+    }
+
+    private static void send(HttpExchange exchange, int status, BookDTO book) throws IOException {
+        byte[] body = CBOR.writeValueAsBytes(book);
+        exchange.getResponseHeaders().add("Content-Type", "application/cbor");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package wakeb.example.microservice.integration.command;
+
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.model.Book;
+import wakeb.example.microservice.repository.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A title taken between the lookup and the flush hits the unique constraint, as with a concurrent writer
+@SpringBootTest(classes = Application.class, properties = "spring.datasource.url=jdbc:h2:mem:bookbatchconflict")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BookBatchConflictIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @SpyBean
+    private BookRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void createBooks_WhenTitleIsTakenBeforeTheFlush_ShouldReturnConflict() throws Exception {
+        // GIVEN: the title exists, but the lookup misses it as it would miss a concurrent insert
+        repository.save(new Book("Clean Code", "Robert C. Martin", LocalDate.of(2008, 8, 1)));
+        doReturn(Collections.emptyList()).when(repository).findExistingTitles(any());
+        List<BookDTO> feed = List.of(
+                new BookDTO(null, "Refactoring", "Martin Fowler", LocalDate.of(1999, 7, 8)),
+                new BookDTO(null, "Clean Code", "Another Author", LocalDate.of(2020, 1, 1)));
+
+        // WHEN & THEN: the violation is reported as a conflict and the whole batch is rolled back
+        mockMvc.perform(post("/api/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(feed)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errorCode", is("BOOKALREADYEXISTSEXCEPTION")));
+        assert(repository.count() == 1);
+    }
+}
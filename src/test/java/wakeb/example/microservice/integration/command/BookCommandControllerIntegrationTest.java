@@ -1,6 +1,7 @@
 package wakeb.example.microservice.integration.command;
 
 import wakeb.example.microservice.Application;
+import wakeb.example.microservice.config.CacheConfig;
 import wakeb.example.microservice.dto.book.BookDTO;
 import wakeb.example.microservice.model.Book;
 import wakeb.example.microservice.repository.BookRepository;
@@ -10,17 +11,22 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,6 +46,9 @@ public class BookCommandControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     void setUp() {
         // Clean the repository before each test
@@ -169,4 +178,85 @@ public class BookCommandControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
     }
+
+    @Test
+    void updateBook_ShouldRefreshCachedBook() throws Exception {
+        // Given: A book that has been read, and is therefore cached.
+        Book book = repository.save(new Book("Refactoring", "Martin Fowler", LocalDate.of(1999, 7, 8)));
+        mockMvc.perform(get("/api/books/{id}", book.getId()))
+                .andExpect(status().isOk());
+
+        BookDTO updateDto = new BookDTO(null, "Refactoring, 2nd Edition", "Martin Fowler", LocalDate.of(2018, 11, 20));
+
+        // When: The book is updated.
+        mockMvc.perform(put("/api/books/{id}", book.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+
+        // Then: Reads see the new state.
+        mockMvc.perform(get("/api/books/{id}", book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Refactoring, 2nd Edition")));
+    }
+
+    @Test
+    void deleteBook_ShouldEvictCachedBook() throws Exception {
+        // Given: A book that has been read, and is therefore cached.
+        Book book = repository.save(new Book("Patterns of Enterprise Application Architecture", "Martin Fowler", LocalDate.of(2002, 11, 5)));
+        mockMvc.perform(get("/api/books/{id}", book.getId()))
+                .andExpect(status().isOk());
+        Cache cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        assert(cache.get(book.getId()) != null);
+
+        // When: The book is deleted.
+        mockMvc.perform(delete("/api/books/{id}", book.getId()))
+                .andExpect(status().isNoContent());
+
+        // Then: The cache entry is gone and reads return 404.
+        assert(cache.get(book.getId()) == null);
+        mockMvc.perform(get("/api/books/{id}", book.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createBooks_ShouldInsertAcrossSeveralBatchesAndReportDuplicates() throws Exception {
+        // Given: An existing book and a feed larger than one JDBC batch that repeats its title.
+        repository.save(new Book("Clean Code", "Robert C. Martin", LocalDate.of(2008, 8, 1)));
+        List<BookDTO> feed = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            feed.add(new BookDTO(null, "Feed Title " + i, "Feed Author", LocalDate.of(2020, 1, 1)));
+        }
+        feed.add(new BookDTO(null, "Clean Code", "Another Author", LocalDate.of(2020, 1, 1)));
+
+        // When & Then: Every item gets a result, in order.
+        mockMvc.perform(post("/api/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(feed)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(251)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[250].status", is("DUPLICATE")))
+                .andExpect(jsonPath("$[250].title", is("Clean Code")));
+
+        // Verify: Only the new titles were stored.
+        assert(repository.count() == 251);
+    }
+
+    @Test
+    void updateBook_ToTitleOfAnotherBook_ShouldReturnConflict() throws Exception {
+        // Given: Two books with different titles.
+        repository.save(new Book("Clean Code", "Robert C. Martin", LocalDate.of(2008, 8, 1)));
+        Book other = repository.save(new Book("Clean Architecture", "Robert C. Martin", LocalDate.of(2017, 9, 10)));
+
+        BookDTO updateDto = new BookDTO(null, "Clean Code", "Robert C. Martin", LocalDate.of(2017, 9, 10));
+
+        // When & Then: Renaming the second book to the first one's title is rejected by the unique constraint.
+        mockMvc.perform(put("/api/books/{id}", other.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errorCode", is("BOOKALREADYEXISTSEXCEPTION")));
+    }
 }
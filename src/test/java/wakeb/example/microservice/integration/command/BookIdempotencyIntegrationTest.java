@@ -0,0 +1,108 @@
+package wakeb.example.microservice.integration.command;
+
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.idempotency.IdempotencyKeyFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Not @Transactional: the filter settles a key after the request, outside any test transaction
+@SpringBootTest(classes = Application.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency",
+        "books.idempotency.max-body-size=1KB"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BookIdempotencyIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void createBook_WhenRetriedWithSameKey_ShouldReplayTheFirstResponse() throws Exception {
+        // GIVEN
+        String body = objectMapper.writeValueAsString(
+                new BookDTO(null, "Designing Data-Intensive Applications", "Martin Kleppmann", LocalDate.of(2017, 3, 16)));
+        MockHttpServletResponse first = mockMvc.perform(post("/api/books")
+                        .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-ddia")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyKeyFilter.IDEMPOTENT_REPLAYED))
+                .andReturn().getResponse();
+
+        // WHEN
+        MockHttpServletResponse retry = mockMvc.perform(post("/api/books")
+                        .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-ddia")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                // THEN: the stored response comes back instead of a duplicate-title error
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyKeyFilter.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getHeader("Location")).isEqualTo(first.getHeader("Location"));
+
+        // AND: a new key runs the request again
+        mockMvc.perform(post("/api/books")
+                        .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-ddia-again")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void createBook_WhenKeyIsReusedWithDifferentBody_ShouldReturnUnprocessableEntity() throws Exception {
+        // GIVEN
+        mockMvc.perform(post("/api/books")
+                        .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-sre")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new BookDTO(null, "Site Reliability Engineering", "Betsy Beyer", LocalDate.of(2016, 4, 16)))))
+                .andExpect(status().isCreated());
+
+        // WHEN
+        mockMvc.perform(post("/api/books")
+                        .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-sre")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new BookDTO(null, "The Site Reliability Workbook", "Betsy Beyer", LocalDate.of(2018, 7, 27)))))
+                // THEN: the first response is not replayed for a different request
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(header().doesNotExist(IdempotencyKeyFilter.IDEMPOTENT_REPLAYED))
+                .andExpect(jsonPath("$.errorCode").value("IDEMPOTENCYKEYREUSEDEXCEPTION"));
+    }
+
+    @Test
+    void createBook_WhenBodyExceedsTheLimit_ShouldReturnPayloadTooLarge() throws Exception {
+        // GIVEN
+        String body = objectMapper.writeValueAsString(
+                new BookDTO(null, "A".repeat(2048), "Michael Nygard", LocalDate.of(2018, 1, 8)));
+
+        // WHEN
+        mockMvc.perform(post("/api/books")
+                        .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-oversized")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                // THEN: rejected before the body is buffered or the key claimed
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.errorCode").value("IDEMPOTENTBODYTOOLARGEEXCEPTION"));
+    }
+}
@@ -0,0 +1,101 @@
+package wakeb.example.microservice.integration.command;
+
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.journal.BookJournalReplayer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Not @Transactional: changes are journaled once their transaction has committed
+@SpringBootTest(classes = Application.class, properties = {
+        "books.journal.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:journal"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BookJournalReplayIntegrationTest {
+
+    @TempDir
+    static Path journalDirectory;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("books.journal.directory", () -> journalDirectory.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookJournalReplayer replayer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rebuildBooksTable_ShouldRestoreTheLatestStateOfEveryBook() throws Exception {
+        // GIVEN: a create, an update and a create followed by a delete
+        Long kept = create(new BookDTO(null, "Designing Data-Intensive Applications", "Martin Kleppmann", LocalDate.of(2017, 3, 16)));
+        mockMvc.perform(put("/api/books/{id}", kept)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new BookDTO(null, "Designing Data-Intensive Applications", "M. Kleppmann", LocalDate.of(2017, 3, 16)))))
+                .andExpect(status().isOk());
+        Long deleted = create(new BookDTO(null, "Temporary", "Nobody", null));
+        mockMvc.perform(delete("/api/books/{id}", deleted)).andExpect(status().isNoContent());
+
+        // WHEN: the table is lost and rebuilt from the journal
+        jdbcTemplate.update("delete from books");
+        int restored = replayer.rebuildBooksTable();
+
+        // THEN
+        assertThat(restored).isEqualTo(1);
+        List<BookDTO> replayed = new ArrayList<>();
+        replayer.replayBooks(replayed::add);
+        assertThat(replayed).extracting(BookDTO::getId).containsExactly(kept);
+        assertThat(jdbcTemplate.queryForObject("select version from books where id = ?", Long.class, kept)).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject("select author from books where id = ?", String.class, kept)).isEqualTo("M. Kleppmann");
+
+        // THEN: new books get identifiers past the restored ones
+        Long next = create(new BookDTO(null, "Release It!", "Michael Nygard", null));
+        assertThat(next).isGreaterThan(kept).isNotEqualTo(deleted);
+        mockMvc.perform(get("/api/books/{id}", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Release It!")));
+    }
+
+    private Long create(BookDTO book) throws Exception {
+        String body = mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, BookDTO.class).getId();
+    }
+}
@@ -0,0 +1,44 @@
+package wakeb.example.microservice.integration.command;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.config.BookSequenceInitializer;
+import wakeb.example.microservice.model.Book;
+import wakeb.example.microservice.repository.BookRepository;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = Application.class, properties = "spring.datasource.url=jdbc:h2:mem:booksequence")
+@ActiveProfiles("test")
+public class BookSequenceInitializerIntegrationTest {
+
+    @Autowired
+    private BookSequenceInitializer bookSequenceInitializer;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seed_WhenRowsPredateTheSequence_ShouldHandOutIdsPastThem() {
+        // GIVEN: rows numbered by a former identity column, the sequence still at its start
+        jdbcTemplate.update("insert into books (id, title, author, version) values (1, 'Refactoring', 'Martin Fowler', 0)");
+        jdbcTemplate.update("insert into books (id, title, author, version) values (1000, 'Release It!', 'Michael Nygard', 0)");
+
+        // WHEN
+        bookSequenceInitializer.seed();
+        Book created = bookRepository.save(new Book("Domain-Driven Design", "Eric Evans", LocalDate.of(2003, 8, 20)));
+
+        // THEN
+        assertThat(created.getId()).isGreaterThan(1000L);
+        assertThat(bookRepository.count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,116 @@
+package wakeb.example.microservice.integration.command;
+
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.dto.book.BookCommandStatusDTO;
+import wakeb.example.microservice.dto.book.BookDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Not @Transactional: queued commands are written by the background writer in its own transactions
+@SpringBootTest(classes = Application.class, properties = {
+        "books.write-behind.enabled=true",
+        "books.write-behind.journal-file=",
+        "spring.datasource.url=jdbc:h2:mem:writebehind"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BookWriteBehindIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void respondAsync_ShouldQueueCommandsAndReportTheirOutcome() throws Exception {
+        // GIVEN & WHEN: a create queued with Prefer: respond-async
+        String accepted = mockMvc.perform(post("/api/books")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new BookDTO(null, "Release It!", "Michael Nygard", LocalDate.of(2018, 1, 8)))))
+                // THEN
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getContentAsString();
+        BookCommandStatusDTO created = awaitCompletion(objectMapper.readValue(accepted, BookCommandStatusDTO.class).getCommandId());
+        assertThat(created.getStatus()).isEqualTo(BookCommandStatusDTO.Status.APPLIED);
+
+        // WHEN: an update of the new book is queued
+        String updateAccepted = mockMvc.perform(put("/api/books/{id}", created.getBookId())
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new BookDTO(null, "Release It! Second Edition", "Michael Nygard", LocalDate.of(2018, 1, 8)))))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        BookCommandStatusDTO updated = awaitCompletion(objectMapper.readValue(updateAccepted, BookCommandStatusDTO.class).getCommandId());
+
+        // THEN
+        assertThat(updated.getStatus()).isEqualTo(BookCommandStatusDTO.Status.APPLIED);
+        mockMvc.perform(get("/api/books/{id}", created.getBookId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Release It! Second Edition")));
+    }
+
+    @Test
+    void respondAsync_WhenTitleIsTaken_ShouldReportFailure() throws Exception {
+        // GIVEN
+        BookDTO book = new BookDTO(null, "Site Reliability Engineering", "Betsy Beyer", LocalDate.of(2016, 4, 16));
+        mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isCreated());
+
+        // WHEN
+        String accepted = mockMvc.perform(post("/api/books")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+
+        // THEN
+        BookCommandStatusDTO status = awaitCompletion(objectMapper.readValue(accepted, BookCommandStatusDTO.class).getCommandId());
+        assertThat(status.getStatus()).isEqualTo(BookCommandStatusDTO.Status.FAILED);
+        assertThat(status.getDetail()).contains("Book already exists");
+    }
+
+    @Test
+    void getCommandStatus_WhenUnknown_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/books/commands/{commandId}", "unknown"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.title", is("BookCommandNotFoundException")));
+    }
+
+    private BookCommandStatusDTO awaitCompletion(String commandId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String body = mockMvc.perform(get("/api/books/commands/{commandId}", commandId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            BookCommandStatusDTO status = objectMapper.readValue(body, BookCommandStatusDTO.class);
+            if (status.getStatus() != BookCommandStatusDTO.Status.PENDING) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Command " + commandId + " was not written in time");
+    }
+}
@@ -0,0 +1,76 @@
+package wakeb.example.microservice.integration.metrics;
+
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.config.DataSourceConfig;
+import wakeb.example.microservice.model.Book;
+import wakeb.example.microservice.repository.BookRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = Application.class)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@Transactional
+public class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void prometheusEndpoint_ShouldExposeEndpointServiceRepositoryAndErrorMetrics() throws Exception {
+        // Given: One successful lookup and one lookup of a missing book.
+        Book book = repository.save(new Book("Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1)));
+        mockMvc.perform(get("/api/books/{id}", book.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+
+        // When & Then: The scrape contains latency histograms and the error counter.
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"/api/books/{id}\"")))
+                .andExpect(content().string(containsString("books_service_seconds_bucket")))
+                .andExpect(content().string(containsString("method=\"findBookById\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds")))
+                .andExpect(content().string(containsString("books_exceptions_total{errorCode=\"BOOKNOTFOUNDEXCEPTION\"")));
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeConnectionPoolMetricsOfTheWarmedUpPool() throws Exception {
+        // Given: The pool warmed up on startup.
+        HikariDataSource pool = DataSourceConfig.hikariPools(dataSource).get(0);
+
+        // When & Then: Its minimum idle connections are open and its usage is published.
+        assertThat(pool.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(pool.getMinimumIdle());
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket{pool=\"books\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active{pool=\"books\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_idle{pool=\"books\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending{pool=\"books\"")));
+    }
+}
@@ -0,0 +1,114 @@
+package wakeb.example.microservice.integration.query;
+
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.model.Book;
+import wakeb.example.microservice.repository.BookRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Served by a real Tomcat: compression is applied by the connector, which MockMvc bypasses
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:negotiation")
+@ActiveProfiles("test")
+public class BookContentNegotiationIntegrationTest {
+
+    private static final TypeReference<List<BookDTO>> BOOK_LIST = new TypeReference<>() {
+    };
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            books.add(new Book("Book " + i, "Author " + i, LocalDate.of(2000, 1, 1).plusDays(i)));
+        }
+        repository.saveAll(books);
+    }
+
+    @Test
+    void getAllBooks_WhenClientAcceptsGzip_ShouldCompressLargeResponses() throws Exception {
+        // GIVEN & WHEN
+        HttpResponse<byte[]> response = get("/api/books", "application/json", "gzip");
+
+        // THEN
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        byte[] json = new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes();
+        assertThat(response.body().length).isLessThan(json.length);
+        assertThat(objectMapper.readValue(json, BOOK_LIST)).hasSize(50);
+    }
+
+    @Test
+    void getBookById_WhenResponseIsSmall_ShouldNotCompress() throws Exception {
+        // GIVEN
+        Long id = repository.findAll().get(0).getId();
+
+        // WHEN
+        HttpResponse<byte[]> response = get("/api/books/" + id, "application/json", "gzip");
+
+        // THEN
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+    }
+
+    @Test
+    void getAllBooks_WhenClientAcceptsBinaryFormats_ShouldNegotiateThem() throws Exception {
+        // GIVEN
+        List<BookDTO> expected = objectMapper.readValue(get("/api/books", "application/json", null).body(), BOOK_LIST);
+
+        // WHEN
+        HttpResponse<byte[]> cbor = get("/api/books", "application/cbor", null);
+        HttpResponse<byte[]> smile = get("/api/books", "application/x-jackson-smile", null);
+
+        // THEN
+        assertThat(cbor.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValue("application/cbor");
+        assertThat(smile.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValue("application/x-jackson-smile");
+        List<BookDTO> fromCbor = CBORMapper.builder().addModule(new JavaTimeModule()).build().readValue(cbor.body(), BOOK_LIST);
+        List<BookDTO> fromSmile = SmileMapper.builder().addModule(new JavaTimeModule()).build().readValue(smile.body(), BOOK_LIST);
+        assertThat(fromCbor).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+        assertThat(fromSmile).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(HttpHeaders.ACCEPT, accept);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -1,15 +1,20 @@
 package wakeb.example.microservice.integration.query;
 
 import wakeb.example.microservice.Application;
+import wakeb.example.microservice.config.CacheConfig;
 import wakeb.example.microservice.dto.book.BookDTO;
 import wakeb.example.microservice.model.Book;
 import wakeb.example.microservice.repository.BookRepository;
+import wakeb.example.microservice.search.BookTextIndex;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -21,6 +26,7 @@ import java.util.Arrays;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest(classes = Application.class)
@@ -38,6 +44,12 @@ public class BookQueryControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BookTextIndex bookTextIndex;
+
     private Book book1;
     private Book book2;
 
@@ -104,4 +116,185 @@ public class BookQueryControllerIntegrationTest {
                 .andExpect(jsonPath("$.errorCode", is("BOOKALREADYEXISTSEXCEPTION")));
     }
 
-}
\ No newline at end of file
+    @Test
+    void getBooksPage_ShouldWalkAllBooksUsingCursor() throws Exception {
+        // When: Request the first page with a single book.
+        String firstPage = mockMvc.perform(get("/api/books")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(1)))
+                .andExpect(jsonPath("$.items[0].id", is(book1.getId().intValue())))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode firstPageJson = objectMapper.readTree(firstPage);
+
+        // Then: The cursor leads to the second and last page.
+        mockMvc.perform(get("/api/books")
+                        .param("after", firstPageJson.get("nextCursor").asText())
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(1)))
+                .andExpect(jsonPath("$.items[0].id", is(book2.getId().intValue())))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getBooksPage_WithMalformedCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/books")
+                        .param("after", "%%%")
+                        .param("limit", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)))
+                .andExpect(jsonPath("$.errorCode", is("INVALIDCURSOREXCEPTION")));
+    }
+
+    @Test
+    void exportBooks_ShouldStreamAllBooksAsNdjson() throws Exception {
+        String body = mockMvc.perform(get("/api/books/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assert(lines.length == 2);
+        assert(objectMapper.readValue(lines[0], BookDTO.class).getTitle().equals("Effective Java"));
+        assert(objectMapper.readValue(lines[1], BookDTO.class).getTitle().equals("Clean Code"));
+    }
+
+    @Test
+    void getBookById_ShouldBeServedFromCacheOnSubsequentCalls() throws Exception {
+        // Given: A first lookup loads the book into the cache.
+        mockMvc.perform(get("/api/books/{id}", book1.getId()))
+                .andExpect(status().isOk());
+        assert(cacheManager.getCache(CacheConfig.BOOKS_CACHE).get(book1.getId()) != null);
+
+        // When: The row disappears behind the cache's back.
+        repository.deleteById(book1.getId());
+        repository.flush();
+
+        // Then: The cached copy is still returned.
+        mockMvc.perform(get("/api/books/{id}", book1.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Effective Java")));
+    }
+
+    @Test
+    void searchBooks_ShouldCombineFilters() throws Exception {
+        // Given: A third book by the same author as book1, published earlier.
+        repository.save(new Book("Java Puzzlers", "Joshua Bloch", LocalDate.of(2005, 7, 1)));
+
+        // When & Then: Author alone matches both of his books.
+        mockMvc.perform(get("/api/books/search").param("author", "Joshua Bloch"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(2)));
+
+        // When & Then: Adding a date range narrows it down to one.
+        mockMvc.perform(get("/api/books/search")
+                        .param("author", "Joshua Bloch")
+                        .param("publishedFrom", "2010-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(1)))
+                .andExpect(jsonPath("$.items[0].title", is("Effective Java")));
+
+        // When & Then: Title prefix matching is case-sensitive on the start of the title only.
+        mockMvc.perform(get("/api/books/search").param("titlePrefix", "Clean"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(1)))
+                .andExpect(jsonPath("$.items[0].title", is("Clean Code")));
+        mockMvc.perform(get("/api/books/search").param("titlePrefix", "Code"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(0)));
+    }
+
+    @Test
+    void searchBooks_ShouldPageThroughMatchesWithCursor() throws Exception {
+        String firstPage = mockMvc.perform(get("/api/books/search")
+                        .param("publishedTo", "2030-01-01")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(1)))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/books/search")
+                        .param("publishedTo", "2030-01-01")
+                        .param("after", objectMapper.readTree(firstPage).get("nextCursor").asText())
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(1)))
+                .andExpect(jsonPath("$.items[0].id", is(book2.getId().intValue())))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void searchBooksByText_ShouldMatchWordsAndPrefixesAcrossTitleAndAuthor() throws Exception {
+        // GIVEN: the test transaction never commits, so index the books directly
+        bookTextIndex.rebuild(consumer -> {
+            consumer.accept(new BookDTO(book1.getId(), book1.getTitle(), book1.getAuthor(), book1.getPublicationDate()));
+            consumer.accept(new BookDTO(book2.getId(), book2.getTitle(), book2.getAuthor(), book2.getPublicationDate()));
+        });
+
+        // WHEN & THEN
+        mockMvc.perform(get("/api/books/search/text").param("q", "bloch eff"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].title", is("Effective Java")));
+        mockMvc.perform(get("/api/books/search/text").param("q", "CODE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title", is("Clean Code")))
+                .andExpect(jsonPath("$[0].publicationDate", is("2008-08-01")));
+        mockMvc.perform(get("/api/books/search/text").param("q", "java").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(0)));
+    }
+
+    @Test
+    void getBookById_ShouldRevalidateAgainstVersion() throws Exception {
+        // GIVEN: the books are written, which stamps their modification time,
+        // and a client holds the current representation
+        repository.flush();
+        String eTag = mockMvc.perform(get("/api/books/{id}", book1.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(0)))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // WHEN & THEN: unchanged book
+        mockMvc.perform(get("/api/books/{id}", book1.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        // WHEN & THEN: the book is updated, so the version and the tag move on
+        mockMvc.perform(put("/api/books/{id}", book1.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new BookDTO(null, "Effective Java, 3rd Edition", "Joshua Bloch", LocalDate.of(2018, 1, 1)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(1)));
+        mockMvc.perform(get("/api/books/{id}", book1.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.title", is("Effective Java, 3rd Edition")));
+    }
+
+    @Test
+    void getAllBooks_ShouldRevalidateAgainstCatalogVersion() throws Exception {
+        // GIVEN
+        String eTag = mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // WHEN & THEN: unchanged catalog
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        // WHEN & THEN: a book is removed
+        repository.delete(book2);
+        mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+    }
+}
@@ -0,0 +1,93 @@
+package wakeb.example.microservice.integration.query;
+
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.readmodel.BookReadModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Not @Transactional: the read model is fed by events published after commit
+@SpringBootTest(classes = Application.class, properties = {
+        "books.read-model.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:readmodel"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BookReadModelIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookReadModel readModel;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void queries_ShouldFollowCommittedCommands() throws Exception {
+        assertThat(readModel.isReady()).isTrue();
+
+        // GIVEN: a book created through the command side
+        String created = mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new BookDTO(null, "Domain-Driven Design", "Eric Evans", LocalDate.of(2003, 8, 20)))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readValue(created, BookDTO.class).getId();
+
+        // WHEN & THEN: the read model has it
+        assertThat(readModel.find(id)).isPresent();
+        mockMvc.perform(get("/api/books/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Domain-Driven Design")));
+
+        // WHEN & THEN: updates move the author index
+        mockMvc.perform(put("/api/books/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new BookDTO(null, "Domain-Driven Design", "E. Evans", LocalDate.of(2003, 8, 20)))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/search").param("author", "E. Evans"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id", is(id.intValue())))
+                .andExpect(jsonPath("$.items[0].version", is(1)));
+
+        // WHEN & THEN: a rejected write leaves the model untouched
+        long count = readModel.getCatalogVersion().getCount();
+        mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new BookDTO(null, "Domain-Driven Design", "Someone Else", null))))
+                .andExpect(status().isConflict());
+        assertThat(readModel.getCatalogVersion().getCount()).isEqualTo(count);
+
+        // WHEN & THEN: deletes remove the book
+        mockMvc.perform(delete("/api/books/{id}", id))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/books/{id}", id))
+                .andExpect(status().isNotFound());
+        assertThat(meterRegistry.get(BookReadModel.LAG_TIMER).timer().count()).isGreaterThanOrEqualTo(3);
+    }
+}
@@ -0,0 +1,102 @@
+package wakeb.example.microservice.integration.query;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wakeb.example.microservice.Application;
+import wakeb.example.microservice.config.DataSourceConfig;
+import wakeb.example.microservice.config.ReadReplicaRoutingDataSource;
+import wakeb.example.microservice.model.Book;
+import wakeb.example.microservice.repository.BookRepository;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two separate H2 databases, so every read shows which one it was routed to
+@SpringBootTest(classes = Application.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingprimary",
+        "books.datasource.replica.url=jdbc:h2:mem:routingreplica;DB_CLOSE_DELAY=-1;"
+                + "INIT=RUNSCRIPT FROM 'classpath:db/replica-schema.sql'",
+        "books.datasource.replica.username=sa"})
+@ActiveProfiles("test")
+public class ReadReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        List<? extends DataSource> pools = DataSourceConfig.hikariPools(dataSource);
+        primary = new JdbcTemplate(pools.get(0));
+        replica = new JdbcTemplate(pools.get(1));
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        bookRepository.deleteAll();
+        replica.update("DELETE FROM books");
+        replica.update("INSERT INTO books (id, title, author, version) VALUES (1000, 'Replica Only', 'Nobody', 0)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadReplicaRoutingDataSource.unpin();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldReadFromTheReplica() {
+        // GIVEN
+        bookRepository.save(new Book("Primary Only", "Somebody", LocalDate.of(2020, 1, 1)));
+
+        // WHEN
+        List<Book> books = readOnly.execute(status -> bookRepository.findAll());
+
+        // THEN
+        assertThat(books).extracting(Book::getTitle).containsExactly("Replica Only");
+    }
+
+    @Test
+    void write_ShouldGoToThePrimary() {
+        // WHEN
+        bookRepository.save(new Book("Release It!", "Michael Nygard", LocalDate.of(2018, 1, 1)));
+
+        // THEN
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM books WHERE title = 'Release It!'", Integer.class))
+                .isEqualTo(1);
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM books WHERE title = 'Release It!'", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    void readOnlyTransaction_WhenPinnedToThePrimary_ShouldReadFromThePrimary() {
+        // GIVEN: a client reading its own write
+        bookRepository.save(new Book("Primary Only", "Somebody", LocalDate.of(2020, 1, 1)));
+        ReadReplicaRoutingDataSource.pinToPrimary();
+
+        // WHEN
+        List<Book> books = readOnly.execute(status -> bookRepository.findAll());
+
+        // THEN
+        assertThat(books).extracting(Book::getTitle).containsExactly("Primary Only");
+    }
+}
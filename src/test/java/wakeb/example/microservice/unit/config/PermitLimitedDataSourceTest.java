@@ -0,0 +1,73 @@
+package wakeb.example.microservice.unit.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import wakeb.example.microservice.config.PermitLimitedDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PermitLimitedDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    private PermitLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new PermitLimitedDataSource(targetDataSource, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_WhenPermitsExhausted_ShouldTimeOut() throws Exception {
+        // GIVEN: the only permit is in use
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        dataSource.getConnection();
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> dataSource.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class);
+        verify(targetDataSource, times(1)).getConnection();
+    }
+
+    @Test
+    void close_ShouldReleasePermitExactlyOnce() throws Exception {
+        // GIVEN
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        Connection borrowed = dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isZero();
+
+        // WHEN: closing twice
+        borrowed.close();
+        borrowed.close();
+
+        // THEN
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_WhenTargetFails_ShouldReleasePermit() throws Exception {
+        // GIVEN
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(SQLException.class);
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,81 @@
+package wakeb.example.microservice.unit.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import wakeb.example.microservice.config.ReadReplicaRoutingDataSource;
+import wakeb.example.microservice.config.ReadReplicaRoutingDataSource.Route;
+import wakeb.example.microservice.config.ReadYourWritesFilter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    private final AtomicReference<Route> routeSeenByHandler = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        // Routing is only decided for read-only transactions, as opened by the query service
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void doFilter_OnWrite_ShouldSetCookieAndUsePrimary() throws Exception {
+        // GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/books");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // WHEN
+        filter.doFilter(request, response, (req, res) -> routeSeenByHandler.set(ReadReplicaRoutingDataSource.currentRoute()));
+
+        // THEN
+        assertThat(routeSeenByHandler.get()).isEqualTo(Route.PRIMARY);
+        assertThat(response.getCookie(ReadYourWritesFilter.LAST_WRITE_COOKIE)).isNotNull();
+        assertThat(ReadReplicaRoutingDataSource.currentRoute()).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    void doFilter_OnReadShortlyAfterWrite_ShouldUsePrimary() throws Exception {
+        // GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.LAST_WRITE_COOKIE, Long.toString(System.currentTimeMillis())));
+
+        // WHEN
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> routeSeenByHandler.set(ReadReplicaRoutingDataSource.currentRoute()));
+
+        // THEN
+        assertThat(routeSeenByHandler.get()).isEqualTo(Route.PRIMARY);
+        assertThat(ReadReplicaRoutingDataSource.currentRoute()).isEqualTo(Route.REPLICA);
+    }
+
+    @Test
+    void doFilter_OnReadAfterWindow_ShouldUseReplica() throws Exception {
+        // GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+        long longAgo = System.currentTimeMillis() - Duration.ofMinutes(1).toMillis();
+        request.setCookies(new Cookie(ReadYourWritesFilter.LAST_WRITE_COOKIE, Long.toString(longAgo)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // WHEN
+        filter.doFilter(request, response, (req, res) -> routeSeenByHandler.set(ReadReplicaRoutingDataSource.currentRoute()));
+
+        // THEN
+        assertThat(routeSeenByHandler.get()).isEqualTo(Route.REPLICA);
+        assertThat(response.getCookie(ReadYourWritesFilter.LAST_WRITE_COOKIE)).isNull();
+    }
+}
@@ -1,11 +1,15 @@
 package wakeb.example.microservice.unit.controller.command;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.test.context.ContextConfiguration;
 import wakeb.example.microservice.Application;
+import wakeb.example.microservice.config.BookProperties;
 import wakeb.example.microservice.controller.BookCommandController;
+import wakeb.example.microservice.dto.book.BookBatchResultDTO;
 import wakeb.example.microservice.dto.book.BookDTO;
 import wakeb.example.microservice.exception.handler.GlobalExceptionHandler;
+import wakeb.example.microservice.serialization.BookJsonCache;
 import wakeb.example.microservice.service.interfaces.BookCommandService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +23,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
@@ -30,10 +35,13 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 
 @WebMvcTest(controllers = BookCommandController.class)
-@ContextConfiguration(classes = {Application.class, BookCommandController.class, GlobalExceptionHandler.class})
+@ContextConfiguration(classes = {Application.class, BookCommandController.class, GlobalExceptionHandler.class, SimpleMeterRegistry.class,
+        BookProperties.class, BookJsonCache.class})
 @TestPropertySource(properties = {
         "api.endpoint.books=/api/books" // if you have custom properties
 })
@@ -142,4 +150,41 @@ class BookCommandControllerTest {
         verify(bookCommandService, times(1)).deleteBook(bookId);
     }
 
-}
\ No newline at end of file
+    @Test
+    void createBooks_WhenValidRequest_ShouldReturnPerItemResults() throws Exception {
+        // GIVEN
+        BookDTO duplicate = new BookDTO(null, "Clean Code", "Robert C. Martin", LocalDate.of(2008, 8, 1));
+        when(bookCommandService.createBooks(anyList())).thenReturn(Arrays.asList(
+                new BookBatchResultDTO(0, BookBatchResultDTO.Status.CREATED, 100L, "Effective Java"),
+                new BookBatchResultDTO(1, BookBatchResultDTO.Status.DUPLICATE, null, "Clean Code")));
+
+        // WHEN
+        mockMvc.perform(post("/api/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(validDto, duplicate))))
+                // THEN
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].id").value(100))
+                .andExpect(jsonPath("$[1].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$[1].index").value(1));
+
+        verify(bookCommandService, times(1)).createBooks(anyList());
+    }
+
+    @Test
+    void createBooks_WhenAnItemIsInvalid_ShouldReturnBadRequest() throws Exception {
+        // GIVEN: the second item has a blank title
+        BookDTO invalidDto = new BookDTO(null, "", "Someone", LocalDate.of(2020, 1, 1));
+
+        // WHEN & THEN
+        mockMvc.perform(post("/api/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(validDto, invalidDto))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+
+        verify(bookCommandService, times(0)).createBooks(anyList());
+    }
+}
@@ -1,35 +1,54 @@
 package wakeb.example.microservice.unit.controller.query;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.test.context.ContextConfiguration;
 import wakeb.example.microservice.Application;
+import wakeb.example.microservice.config.BookProperties;
 import wakeb.example.microservice.controller.BookQueryController;
+import wakeb.example.microservice.dto.book.BookCatalogVersionDTO;
 import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookLookupDTO;
+import wakeb.example.microservice.dto.book.BookETags;
+import wakeb.example.microservice.dto.book.BookPageDTO;
+import wakeb.example.microservice.dto.book.BookSearchCriteriaDTO;
+import wakeb.example.microservice.dto.book.BookVersionDTO;
 import wakeb.example.microservice.exception.handler.GlobalExceptionHandler;
+import wakeb.example.microservice.serialization.BookJsonCache;
+import wakeb.example.microservice.serialization.BookJsonWriter;
 import wakeb.example.microservice.service.interfaces.BookQueryService;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = BookQueryController.class)
-@ContextConfiguration(classes = {Application.class, BookQueryController.class, GlobalExceptionHandler.class})
+@ContextConfiguration(classes = {Application.class, BookQueryController.class, GlobalExceptionHandler.class, SimpleMeterRegistry.class,
+        BookProperties.class, BookJsonCache.class})
 @TestPropertySource(properties = "api.endpoint.books=/api/books")
 class BookQueryControllerTest {
 
@@ -44,12 +63,17 @@ class BookQueryControllerTest {
 
     private BookDTO book1;
     private BookDTO book2;
+    private BookCatalogVersionDTO catalog;
 
     @BeforeEach
     void setUp() {
         // Setup sample DTOs for testing
         book1 = new BookDTO(1L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1));
+        book1.setVersion(3L);
+        book1.setLastModified(Instant.parse("2024-03-01T10:15:30Z"));
         book2 = new BookDTO(2L, "Clean Code", "Robert C. Martin", LocalDate.of(2008, 8, 1));
+        catalog = new BookCatalogVersionDTO(2L, 3L, Instant.parse("2024-03-01T10:15:30Z"));
+        when(bookQueryService.findCatalogVersion()).thenReturn(catalog);
     }
 
     @Test
@@ -66,9 +90,81 @@ class BookQueryControllerTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.title").value("Effective Java"))
                 .andExpect(jsonPath("$.author").value("Joshua Bloch"))
-                .andExpect(jsonPath("$.publicationDate").value("2018-01-01"));
+                .andExpect(jsonPath("$.publicationDate").value("2018-01-01"))
+                .andExpect(jsonPath("$.version").value(3))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-3\""))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Fri, 01 Mar 2024 10:15:30 GMT"));
 
         verify(bookQueryService, times(1)).findBookById(1L);
+        verify(bookQueryService, never()).findBookVersion(any());
+    }
+
+    @Test
+    void getBooksByIds_ShouldReturnBooksInRequestOrderAndMissingIds() throws Exception {
+        // GIVEN
+        when(bookQueryService.findBooksByIds(List.of(2L, 1L, 9L)))
+                .thenReturn(new BookLookupDTO(List.of(book2, book1), List.of(9L)));
+
+        // WHEN
+        ResultActions result = mockMvc.perform(get("/api/books").param("ids", "2,1,9"));
+
+        // THEN
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(2))
+                .andExpect(jsonPath("$.items[1].id").value(1))
+                .andExpect(jsonPath("$.missingIds[0]").value(9));
+        verify(bookQueryService, never()).findAllBooks();
+    }
+
+    @Test
+    void getBooks_WithIdsAndLimit_ShouldServeTheCursorPage() throws Exception {
+        // GIVEN
+        when(bookQueryService.findBooksPage(isNull(), eq(5)))
+                .thenReturn(new BookPageDTO(Collections.singletonList(book1), null));
+
+        // WHEN
+        ResultActions result = mockMvc.perform(get("/api/books").param("ids", "1").param("limit", "5"));
+
+        // THEN
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1));
+        verify(bookQueryService, never()).findBooksByIds(any());
+    }
+
+    @Test
+    void getBookById_WhenETagMatches_ShouldReturnNotModifiedWithoutLoadingBook() throws Exception {
+        // GIVEN
+        when(bookQueryService.findBookVersion(1L))
+                .thenReturn(new BookVersionDTO(1L, 3L, Instant.parse("2024-03-01T10:15:30Z")));
+
+        // WHEN
+        ResultActions result = mockMvc.perform(get("/api/books/{id}", 1L)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""));
+
+        // THEN
+        result.andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-3\""))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andExpect(content().string(""));
+        verify(bookQueryService, never()).findBookById(any());
+    }
+
+    @Test
+    void getBookById_WhenETagIsStale_ShouldReturnBook() throws Exception {
+        // GIVEN
+        when(bookQueryService.findBookVersion(1L))
+                .thenReturn(new BookVersionDTO(1L, 3L, Instant.parse("2024-03-01T10:15:30Z")));
+        when(bookQueryService.findBookById(1L)).thenReturn(book1);
+
+        // WHEN
+        ResultActions result = mockMvc.perform(get("/api/books/{id}", 1L)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-2\""));
+
+        // THEN
+        result.andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "W/\"1-3\""))
+                .andExpect(jsonPath("$.title").value("Effective Java"));
     }
 
     @Test
@@ -87,11 +183,23 @@ class BookQueryControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].title").value("Effective Java"))
                 .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].title").value("Clean Code"));
+                .andExpect(jsonPath("$[1].title").value("Clean Code"))
+                .andExpect(header().string(HttpHeaders.ETAG, BookETags.forCatalog(catalog)));
 
         verify(bookQueryService, times(1)).findAllBooks();
     }
 
+    @Test
+    void getAllBooks_WhenCatalogUnchanged_ShouldReturnNotModifiedWithoutLoadingBooks() throws Exception {
+        // WHEN
+        ResultActions result = mockMvc.perform(get("/api/books")
+                .header(HttpHeaders.IF_NONE_MATCH, BookETags.forCatalog(catalog)));
+
+        // THEN
+        result.andExpect(status().isNotModified());
+        verify(bookQueryService, never()).findAllBooks();
+    }
+
     @Test
     void getAllBooks_WhenNoBooksExist_ShouldReturnOkAndEmptyList() throws Exception {
         // GIVEN
@@ -107,4 +215,94 @@ class BookQueryControllerTest {
 
         verify(bookQueryService, times(1)).findAllBooks();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBooksPage_WhenLimitGiven_ShouldReturnPageWithNextCursor() throws Exception {
+        // GIVEN
+        when(bookQueryService.findBooksPage(isNull(), eq(1)))
+                .thenReturn(new BookPageDTO(Collections.singletonList(book1), "cursor-1"));
+
+        // WHEN
+        ResultActions result = mockMvc.perform(get("/api/books")
+                .param("limit", "1")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        // THEN
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("cursor-1"));
+
+        verify(bookQueryService, times(1)).findBooksPage(null, 1);
+        verify(bookQueryService, never()).findAllBooks();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportBooks_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        // GIVEN
+        doAnswer(invocation -> {
+            JsonGenerator generator = invocation.getArgument(0);
+            BookJsonWriter.write(generator, book1);
+            generator.writeRaw('\n');
+            BookJsonWriter.write(generator, book2);
+            generator.writeRaw('\n');
+            return null;
+        }).when(bookQueryService).writeAllBooks(any(JsonGenerator.class));
+
+        // WHEN
+        String body = mockMvc.perform(get("/api/books/export"))
+                // THEN
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], BookDTO.class).getTitle())
+                .isEqualTo("Effective Java");
+        assertThat(objectMapper.readValue(lines[1], BookDTO.class).getTitle())
+                .isEqualTo("Clean Code");
+    }
+
+    @Test
+    void searchBooks_ShouldBindCriteriaFromQueryParameters() throws Exception {
+        // GIVEN
+        ArgumentCaptor<BookSearchCriteriaDTO> criteria = ArgumentCaptor.forClass(BookSearchCriteriaDTO.class);
+        when(bookQueryService.searchBooks(criteria.capture(), isNull(), eq(20)))
+                .thenReturn(new BookPageDTO(Collections.singletonList(book1), null));
+
+        // WHEN
+        ResultActions result = mockMvc.perform(get("/api/books/search")
+                .param("author", "Joshua Bloch")
+                .param("titlePrefix", "Eff")
+                .param("publishedFrom", "2000-01-01")
+                .param("publishedTo", "2020-12-31"));
+
+        // THEN
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Effective Java"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        assertThat(criteria.getValue().getAuthor()).isEqualTo("Joshua Bloch");
+        assertThat(criteria.getValue().getTitlePrefix()).isEqualTo("Eff");
+        assertThat(criteria.getValue().getPublishedFrom()).isEqualTo(LocalDate.of(2000, 1, 1));
+        assertThat(criteria.getValue().getPublishedTo()).isEqualTo(LocalDate.of(2020, 12, 31));
+    }
+
+    @Test
+    void searchBooksByText_ShouldReturnRankedMatches() throws Exception {
+        // GIVEN
+        when(bookQueryService.searchBooksByText("bloch java", 1, 10)).thenReturn(Collections.singletonList(book1));
+
+        // WHEN
+        ResultActions result = mockMvc.perform(get("/api/books/search/text")
+                .param("q", "bloch java")
+                .param("page", "1")
+                .param("size", "10"));
+
+        // THEN
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Effective Java"));
+    }
+}
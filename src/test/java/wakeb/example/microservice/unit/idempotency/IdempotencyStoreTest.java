@@ -0,0 +1,135 @@
+package wakeb.example.microservice.unit.idempotency;
+
+import org.junit.jupiter.api.Test;
+import wakeb.example.microservice.idempotency.CachedResponse;
+import wakeb.example.microservice.idempotency.IdempotencyStore;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdempotencyStoreTest {
+
+    private static final byte[] BODY = {1, 2, 3};
+
+    private static final CachedResponse CREATED = new CachedResponse(201, Map.of(), new byte[]{'{', '}'});
+
+    @Test
+    void claim_WhenKeyIsInFlight_ShouldHandTheOwnersResponseToConcurrentRequests() throws Exception {
+        // GIVEN
+        IdempotencyStore store = new IdempotencyStore(100, 4, Duration.ofMinutes(1));
+        AtomicInteger owners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // WHEN: eight requests race for the same key and only the owner completes it
+        try {
+            Future<?>[] results = new Future<?>[8];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = executor.submit(() -> {
+                    start.await();
+                    IdempotencyStore.Claim claim = store.claim("POST /api/books k1", BODY);
+                    if (claim.isOwner()) {
+                        owners.incrementAndGet();
+                        store.complete("POST /api/books k1", CREATED);
+                    }
+                    return claim.getResponse().get(5, TimeUnit.SECONDS);
+                });
+            }
+            start.countDown();
+
+            // THEN
+            for (Future<?> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(CREATED);
+            }
+            assertThat(owners).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void claim_WhenResponseHasExpired_ShouldLetTheNextRequestRunAgain() {
+        // GIVEN
+        long[] now = {0};
+        IdempotencyStore store = new IdempotencyStore(100, 4, Duration.ofSeconds(10), () -> now[0]);
+        store.claim("k1", BODY);
+        store.complete("k1", CREATED);
+
+        // WHEN & THEN
+        now[0] = Duration.ofSeconds(9).toNanos();
+        assertThat(store.claim("k1", BODY).isOwner()).isFalse();
+        now[0] = Duration.ofSeconds(10).toNanos();
+        assertThat(store.claim("k1", BODY).isOwner()).isTrue();
+    }
+
+    @Test
+    void release_ShouldForgetTheKeyAndCancelWaiters() {
+        // GIVEN
+        IdempotencyStore store = new IdempotencyStore(100, 4, Duration.ofMinutes(1));
+        store.claim("k1", BODY);
+        IdempotencyStore.Claim waiter = store.claim("k1", BODY);
+
+        // WHEN
+        store.release("k1", null);
+
+        // THEN
+        assertThat(waiter.getResponse()).isCancelled();
+        assertThat(store.claim("k1", BODY).isOwner()).isTrue();
+    }
+
+    @Test
+    void claim_WhenStripeIsFull_ShouldDropTheOldestCompletedKey() {
+        // GIVEN: a single stripe holding two completed keys
+        IdempotencyStore store = new IdempotencyStore(2, 1, Duration.ofMinutes(1));
+        store.claim("k1", BODY);
+        store.complete("k1", CREATED);
+        store.claim("k2", BODY);
+        store.complete("k2", CREATED);
+
+        // WHEN
+        store.claim("k3", BODY);
+
+        // THEN
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.claim("k2", BODY).isOwner()).isFalse();
+        assertThat(store.claim("k1", BODY).isOwner()).isTrue();
+    }
+
+    @Test
+    void claim_WhenStripeIsFullOfKeysInFlight_ShouldKeepThem() {
+        // GIVEN: a single stripe holding two keys whose requests are still running
+        IdempotencyStore store = new IdempotencyStore(2, 1, Duration.ofMinutes(1));
+        store.claim("k1", BODY);
+        store.claim("k2", BODY);
+
+        // WHEN
+        store.claim("k3", BODY);
+
+        // THEN: the stripe grows past its capacity instead of letting a retry of k1 run again
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.claim("k1", BODY).isOwner()).isFalse();
+    }
+
+    @Test
+    void claim_WithDifferentBody_ShouldReportTheMismatch() {
+        // GIVEN
+        IdempotencyStore store = new IdempotencyStore(100, 4, Duration.ofMinutes(1));
+        store.claim("k1", BODY);
+
+        // WHEN
+        IdempotencyStore.Claim claim = store.claim("k1", new byte[]{4, 5, 6});
+
+        // THEN
+        assertThat(claim.isOwner()).isFalse();
+        assertThat(claim.isMismatched()).isTrue();
+        assertThat(store.claim("k1", BODY).isMismatched()).isFalse();
+    }
+}
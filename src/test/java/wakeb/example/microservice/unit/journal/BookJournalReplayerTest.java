@@ -0,0 +1,85 @@
+package wakeb.example.microservice.unit.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.journal.BookJournal;
+import wakeb.example.microservice.journal.BookJournalRecord;
+import wakeb.example.microservice.journal.BookJournalReplayer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class BookJournalReplayerTest {
+
+    @TempDir
+    private Path directory;
+
+    private BookJournal journal;
+
+    private BookJournalReplayer replayer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journal = new BookJournal(directory, 1 << 20, 0, Duration.ZERO, new SimpleMeterRegistry());
+        replayer = new BookJournalReplayer(journal, mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+                new BookProperties());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.destroy();
+    }
+
+    @Test
+    void replayBooks_WhenAnOlderVersionIsAppendedLast_ShouldKeepTheNewestVersion() {
+        // GIVEN: the commit of version 2 is journaled after the commit of version 3
+        journal.append(BookJournalRecord.Type.CREATED, 1L, book(1L, "First", 1L));
+        journal.append(BookJournalRecord.Type.UPDATED, 1L, book(1L, "Third", 3L));
+        journal.append(BookJournalRecord.Type.UPDATED, 1L, book(1L, "Second", 2L));
+
+        // WHEN
+        List<BookDTO> books = replay();
+
+        // THEN
+        assertThat(books).extracting(BookDTO::getTitle).containsExactly("Third");
+    }
+
+    @Test
+    void replayBooks_WhenAnUpdateIsAppendedAfterTheDeletion_ShouldNotReviveTheBook() {
+        // GIVEN
+        journal.append(BookJournalRecord.Type.CREATED, 1L, book(1L, "Deleted", 1L));
+        journal.append(BookJournalRecord.Type.DELETED, 1L, null);
+        journal.append(BookJournalRecord.Type.UPDATED, 1L, book(1L, "Late update", 2L));
+        journal.append(BookJournalRecord.Type.CREATED, 2L, book(2L, "Kept", 1L));
+
+        // WHEN
+        List<BookDTO> books = replay();
+
+        // THEN
+        assertThat(books).extracting(BookDTO::getId).containsExactly(2L);
+    }
+
+    private List<BookDTO> replay() {
+        List<BookDTO> books = new ArrayList<>();
+        replayer.replayBooks(books::add);
+        return books;
+    }
+
+    private static BookDTO book(Long id, String title, Long version) {
+        BookDTO book = new BookDTO(id, title, "Author", null);
+        book.setVersion(version);
+        return book;
+    }
+}
@@ -0,0 +1,182 @@
+package wakeb.example.microservice.unit.journal;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.cumulative.CumulativeTimer;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.pause.PauseDetector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.journal.BookJournal;
+import wakeb.example.microservice.journal.BookJournalRecord;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class BookJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void read_ShouldReturnAppendedRecordsInOrder() throws Exception {
+        // GIVEN
+        BookJournal journal = open(1 << 20, 0);
+        BookDTO book = new BookDTO(7L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1));
+        book.setVersion(2L);
+        book.setLastModified(Instant.parse("2024-03-01T10:15:30.123456Z"));
+
+        // WHEN
+        journal.sync(journal.append(BookJournalRecord.Type.UPDATED, 7L, book));
+        journal.sync(journal.append(BookJournalRecord.Type.CREATED, 8L, new BookDTO(8L, "Clean Code", null, null)));
+        journal.sync(journal.append(BookJournalRecord.Type.DELETED, 7L, null));
+
+        // THEN
+        List<BookJournalRecord> records = readAll(journal);
+        assertThat(records).extracting(BookJournalRecord::getSequence).containsExactly(1L, 2L, 3L);
+        assertThat(records).extracting(BookJournalRecord::getType).containsExactly(
+                BookJournalRecord.Type.UPDATED, BookJournalRecord.Type.CREATED, BookJournalRecord.Type.DELETED);
+        BookDTO restored = records.get(0).getBook();
+        assertThat(restored.getTitle()).isEqualTo("Effective Java");
+        assertThat(restored.getPublicationDate()).isEqualTo(LocalDate.of(2018, 1, 1));
+        assertThat(restored.getVersion()).isEqualTo(2L);
+        assertThat(restored.getLastModified()).isEqualTo(book.getLastModified());
+        assertThat(records.get(1).getBook().getAuthor()).isNull();
+        assertThat(records.get(2).getBook()).isNull();
+        journal.destroy();
+    }
+
+    @Test
+    void constructor_ShouldContinueAfterTheLastIntactRecord() throws Exception {
+        // GIVEN: two records, the second one torn by a crash
+        BookJournal journal = open(1 << 20, 0);
+        journal.sync(journal.append(BookJournalRecord.Type.DELETED, 1L, null));
+        journal.sync(journal.append(BookJournalRecord.Type.DELETED, 2L, null));
+        journal.destroy();
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Corrupts the last byte of the second payload, so its checksum no longer matches
+            int secondFrame = 8 + 25;
+            file.seek(secondFrame + 8 + 24);
+            file.write(0x7f);
+        }
+
+        // WHEN
+        BookJournal reopened = open(1 << 20, 0);
+        reopened.sync(reopened.append(BookJournalRecord.Type.DELETED, 3L, null));
+
+        // THEN
+        assertThat(readAll(reopened)).extracting(BookJournalRecord::getBookId).containsExactly(1L, 3L);
+        assertThat(readAll(reopened)).extracting(BookJournalRecord::getSequence).containsExactly(1L, 2L);
+        reopened.destroy();
+    }
+
+    @Test
+    void append_ShouldRollSegmentsAndApplyRetention() throws Exception {
+        // GIVEN: room for two deletion records per segment, three segments kept
+        BookJournal journal = open(2 * (8 + 25), 3);
+
+        // WHEN
+        for (long id = 1; id <= 9; id++) {
+            journal.sync(journal.append(BookJournalRecord.Type.DELETED, id, null));
+        }
+
+        // THEN
+        assertThat(segments()).hasSize(3);
+        assertThat(journal.getFirstSequence()).isEqualTo(5L);
+        assertThat(readAll(journal)).extracting(BookJournalRecord::getSequence).containsExactly(5L, 6L, 7L, 8L, 9L);
+        journal.destroy();
+    }
+
+    @Test
+    void sync_ShouldMakeConcurrentAppendsDurable() throws Exception {
+        // GIVEN
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookJournal journal = new BookJournal(directory, 1 << 20, 0, Duration.ofMillis(1), meterRegistry);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // WHEN
+        List<Future<?>> appends = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            long id = i;
+            appends.add(executor.submit(() -> journal.sync(journal.append(BookJournalRecord.Type.DELETED, id, null))));
+        }
+        for (Future<?> append : appends) {
+            append.get();
+        }
+        executor.shutdown();
+
+        // THEN: every append is durable, and appends share syncs rather than needing one each
+        assertThat(readAll(journal)).hasSize(200);
+        long syncs = meterRegistry.get(BookJournal.SYNC_TIMER).timer().count();
+        assertThat(syncs).isPositive().isLessThanOrEqualTo(200);
+        journal.destroy();
+    }
+
+    @Test
+    void sync_WhenForcingFails_ShouldThrowInsteadOfBlocking() throws Exception {
+        // GIVEN: a disk failure while forcing, raised from within the timed force
+        BookJournal journal = new BookJournal(directory, 1 << 20, 0, Duration.ZERO, new FailingSyncRegistry());
+        long first = journal.append(BookJournalRecord.Type.DELETED, 1L, null);
+
+        // WHEN & THEN: the waiting appender and every later one fail fast
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThatThrownBy(() -> journal.sync(first))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasCauseInstanceOf(UncheckedIOException.class);
+            long second = journal.append(BookJournalRecord.Type.DELETED, 2L, null);
+            assertThatThrownBy(() -> journal.sync(second)).isInstanceOf(IllegalStateException.class);
+        });
+        journal.destroy();
+    }
+
+    private BookJournal open(int segmentSize, int retainedSegments) throws Exception {
+        return new BookJournal(directory, segmentSize, retainedSegments, Duration.ZERO, new SimpleMeterRegistry());
+    }
+
+    private List<BookJournalRecord> readAll(BookJournal journal) throws Exception {
+        List<BookJournalRecord> records = new ArrayList<>();
+        journal.read(records::add);
+        return records;
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    /**
+     * Registry whose sync timer fails every recorded action, as a failing force would.
+     */
+    private static final class FailingSyncRegistry extends SimpleMeterRegistry {
+
+        @Override
+        protected Timer newTimer(Meter.Id id, DistributionStatisticConfig config, PauseDetector pauseDetector) {
+            return new CumulativeTimer(id, clock, config, pauseDetector, getBaseTimeUnit(), false) {
+                @Override
+                public void record(Runnable f) {
+                    throw new UncheckedIOException(new IOException("Input/output error"));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package wakeb.example.microservice.unit.readmodel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookSearchCriteriaDTO;
+import wakeb.example.microservice.event.BookDeletedEvent;
+import wakeb.example.microservice.event.BookUpdatedEvent;
+import wakeb.example.microservice.readmodel.BookReadModel;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookReadModelTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookReadModel readModel;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        readModel = new BookReadModel(meterRegistry);
+        readModel.rebuild(consumer -> {
+            consumer.accept(book(1L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1), 0L));
+            consumer.accept(book(2L, "Clean Code", "Robert C. Martin", LocalDate.of(2008, 8, 1), 0L));
+            consumer.accept(book(3L, "Java Puzzlers", "Joshua Bloch", LocalDate.of(2005, 7, 1), 2L));
+        });
+    }
+
+    @Test
+    void rebuild_ShouldMakeTheModelReadyWithCatalogVersion() {
+        assertThat(readModel.isReady()).isTrue();
+        assertThat(readModel.getCatalogVersion().getCount()).isEqualTo(3);
+        assertThat(readModel.getCatalogVersion().getVersionSum()).isEqualTo(2);
+        assertThat(meterRegistry.get(BookReadModel.SIZE_GAUGE).gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    void search_ShouldUseIndexesAndSeekPastCursor() {
+        // GIVEN
+        BookSearchCriteriaDTO byAuthor = new BookSearchCriteriaDTO("Joshua Bloch", null, null, null);
+        BookSearchCriteriaDTO byDate = new BookSearchCriteriaDTO(null, null, LocalDate.of(2006, 1, 1), null);
+        BookSearchCriteriaDTO byPrefix = new BookSearchCriteriaDTO(null, "Java", null, LocalDate.of(2010, 1, 1));
+
+        // WHEN & THEN
+        assertThat(readModel.search(byAuthor, 0, 10)).extracting(BookDTO::getId).containsExactly(1L, 3L);
+        assertThat(readModel.search(byAuthor, 1L, 10)).extracting(BookDTO::getId).containsExactly(3L);
+        assertThat(readModel.search(byDate, 0, 10)).extracting(BookDTO::getId).containsExactly(1L, 2L);
+        assertThat(readModel.search(byPrefix, 0, 10)).extracting(BookDTO::getId).containsExactly(3L);
+        assertThat(readModel.findAfter(1L, 1)).extracting(BookDTO::getId).containsExactly(2L);
+    }
+
+    @Test
+    void onBookUpdated_ShouldReindexAndIgnoreOlderVersions() {
+        // GIVEN: the author changes, then a stale event for the previous version arrives
+        readModel.onBookUpdated(new BookUpdatedEvent(book(1L, "Effective Java", "J. Bloch", LocalDate.of(2018, 1, 1), 1L)));
+        readModel.onBookUpdated(new BookUpdatedEvent(book(1L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1), 0L)));
+
+        // WHEN
+        List<BookDTO> byOldAuthor = readModel.search(new BookSearchCriteriaDTO("Joshua Bloch", null, null, null), 0, 10);
+
+        // THEN
+        assertThat(byOldAuthor).extracting(BookDTO::getId).containsExactly(3L);
+        assertThat(readModel.find(1L).orElseThrow().getAuthor()).isEqualTo("J. Bloch");
+        assertThat(readModel.getCatalogVersion().getVersionSum()).isEqualTo(3);
+        assertThat(meterRegistry.get(BookReadModel.LAG_TIMER).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void onBookDeleted_ShouldRemoveBookFromModelAndIndexes() {
+        // WHEN
+        readModel.onBookDeleted(new BookDeletedEvent(3L));
+
+        // THEN
+        assertThat(readModel.find(3L)).isEmpty();
+        assertThat(readModel.search(new BookSearchCriteriaDTO("Joshua Bloch", null, null, null), 0, 10))
+                .extracting(BookDTO::getId).containsExactly(1L);
+        assertThat(readModel.getCatalogVersion().getCount()).isEqualTo(2);
+        assertThat(readModel.getCatalogVersion().getVersionSum()).isZero();
+    }
+
+    @Test
+    void rebuild_ShouldNotResurrectBooksDeletedWhileLoading() {
+        // WHEN: a deletion commits while the database is being read
+        readModel.rebuild(consumer -> {
+            readModel.onBookDeleted(new BookDeletedEvent(1L));
+            consumer.accept(book(1L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1), 0L));
+        });
+
+        // THEN
+        assertThat(readModel.find(1L)).isEmpty();
+        assertThat(readModel.getCatalogVersion().getCount()).isZero();
+    }
+
+    @Test
+    void onBookUpdated_WhenDeletionArrivedFirst_ShouldKeepTheBookAbsent() {
+        // GIVEN: the delete of a later transaction is applied before the update of an earlier one
+        readModel.remove(1L);
+
+        // WHEN
+        readModel.put(book(1L, "Effective Java", "J. Bloch", LocalDate.of(2018, 1, 1), 1L));
+
+        // THEN
+        assertThat(readModel.find(1L)).isEmpty();
+        assertThat(readModel.search(new BookSearchCriteriaDTO("J. Bloch", null, null, null), 0, 10)).isEmpty();
+        assertThat(readModel.getCatalogVersion().getCount()).isEqualTo(2);
+    }
+
+    private static BookDTO book(Long id, String title, String author, LocalDate publicationDate, Long version) {
+        BookDTO book = new BookDTO(id, title, author, publicationDate);
+        book.setVersion(version);
+        book.setLastModified(Instant.parse("2024-03-01T10:15:30Z"));
+        return book;
+    }
+}
@@ -0,0 +1,163 @@
+package wakeb.example.microservice.unit.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.dto.book.BookCatalogVersionDTO;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.search.BookTextIndex;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookTextIndexTest {
+
+    private BookTextIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BookProperties properties = new BookProperties();
+        properties.getSearch().setIndexDirectory("");
+        index = new BookTextIndex(properties);
+        index.indexAll(List.of(
+                new BookDTO(1L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1)),
+                new BookDTO(2L, "Java Concurrency in Practice", "Brian Goetz", LocalDate.of(2006, 5, 19)),
+                new BookDTO(3L, "Clean Code", "Robert C. Martin", null)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.destroy();
+    }
+
+    @Test
+    void search_ShouldRequireEveryWordAndAcceptPrefixes() {
+        // WHEN
+        List<BookDTO> result = index.search("jav bloch", 0, 10);
+
+        // THEN
+        assertThat(result).extracting(BookDTO::getId).containsExactly(1L);
+        assertThat(result.get(0).getPublicationDate()).isEqualTo(LocalDate.of(2018, 1, 1));
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesAboveAuthorOnlyMatches() {
+        // GIVEN: "Martin" also appears in a title, "Robert" only as an author
+        index.index(new BookDTO(4L, "Martin Eden", "Jack London", null));
+
+        // WHEN
+        List<BookDTO> result = index.search("martin", 0, 10);
+
+        // THEN
+        assertThat(result).extracting(BookDTO::getId).containsExactly(4L, 3L);
+    }
+
+    @Test
+    void search_ShouldPageThroughRankedHits() {
+        // WHEN
+        List<BookDTO> first = index.search("java", 0, 1);
+        List<BookDTO> second = index.search("java", 1, 1);
+        List<BookDTO> third = index.search("java", 2, 1);
+
+        // THEN
+        assertThat(first).hasSize(1);
+        assertThat(second).hasSize(1);
+        assertThat(first.get(0).getId()).isNotEqualTo(second.get(0).getId());
+        assertThat(third).isEmpty();
+    }
+
+    @Test
+    void search_WhenPageTimesSizeOverflows_ShouldReturnNothing() {
+        // WHEN: (page + 1) * size wraps around to 0 in int arithmetic
+        List<BookDTO> result = index.search("java", Integer.MAX_VALUE, 1000);
+
+        // THEN
+        assertThat(result).isEmpty();
+        assertThat(index.search("java", 0, BookTextIndex.MAX_RESULT_WINDOW + 1)).isEmpty();
+    }
+
+    @Test
+    void index_ShouldReplaceAndRemoveDocumentsById() {
+        // WHEN
+        index.index(new BookDTO(3L, "Clean Architecture", "Robert C. Martin", null));
+        index.remove(1L);
+
+        // THEN
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("architecture", 0, 10)).extracting(BookDTO::getId).containsExactly(3L);
+        assertThat(index.search("code", 0, 10)).isEmpty();
+        assertThat(index.search("effective", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void index_WhenEventsArriveOutOfOrder_ShouldKeepTheNewestVersion() {
+        // GIVEN: version 2 is applied before version 1
+        index.index(book(3L, "Clean Architecture", "Robert C. Martin", 2L));
+
+        // WHEN
+        index.index(book(3L, "Clean Code", "Robert C. Martin", 1L));
+
+        // THEN
+        assertThat(index.search("architecture", 0, 10)).extracting(BookDTO::getId).containsExactly(3L);
+        assertThat(index.search("code", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void index_WhenBookWasDeleted_ShouldNotBringItBack() {
+        // GIVEN
+        index.remove(1L);
+
+        // WHEN: a late update of the deleted book
+        index.index(book(1L, "Effective Java", "Joshua Bloch", 1L));
+
+        // THEN
+        assertThat(index.search("effective", 0, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void getCatalogVersion_ShouldBeCommittedWithTheIndex(@TempDir Path directory) throws Exception {
+        // GIVEN
+        BookProperties properties = new BookProperties();
+        properties.getSearch().setIndexDirectory(directory.toString());
+        BookTextIndex persistent = new BookTextIndex(properties);
+        persistent.rebuild(consumer -> {
+            consumer.accept(book(1L, "Effective Java", "Joshua Bloch", 2L));
+            consumer.accept(book(2L, "Clean Code", "Robert C. Martin", 1L));
+        });
+        persistent.index(book(3L, "Refactoring", "Martin Fowler", 4L));
+        persistent.remove(2L);
+
+        // WHEN
+        persistent.destroy();
+        BookTextIndex reopened = new BookTextIndex(properties);
+
+        // THEN
+        try {
+            BookCatalogVersionDTO catalog = reopened.getCatalogVersion();
+            assertThat(catalog.getCount()).isEqualTo(2);
+            assertThat(catalog.getVersionSum()).isEqualTo(6);
+            assertThat(catalog.getLastModified()).isEqualTo(Instant.parse("2024-03-01T10:15:30Z"));
+        } finally {
+            reopened.destroy();
+        }
+    }
+
+    @Test
+    void search_WithBlankQuery_ShouldReturnNothing() {
+        assertThat(index.search("  ", 0, 10)).isEmpty();
+    }
+
+    private static BookDTO book(Long id, String title, String author, Long version) {
+        BookDTO book = new BookDTO(id, title, author, null);
+        book.setVersion(version);
+        book.setLastModified(Instant.parse("2024-03-01T10:15:30Z"));
+        return book;
+    }
+}
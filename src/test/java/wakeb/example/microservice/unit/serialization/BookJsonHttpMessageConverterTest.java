@@ -0,0 +1,111 @@
+package wakeb.example.microservice.unit.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookLookupDTO;
+import wakeb.example.microservice.dto.book.BookPageDTO;
+import wakeb.example.microservice.event.BookUpdatedEvent;
+import wakeb.example.microservice.serialization.BookJsonCache;
+import wakeb.example.microservice.serialization.BookJsonHttpMessageConverter;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookJsonHttpMessageConverterTest {
+
+    private static final Type BOOK_LIST = new ParameterizedTypeReference<List<BookDTO>>() {}.getType();
+
+    private ObjectMapper objectMapper;
+
+    private BookJsonCache cache;
+
+    private BookJsonHttpMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cache = new BookJsonCache(objectMapper, new BookProperties(), new SimpleMeterRegistry());
+        converter = new BookJsonHttpMessageConverter(cache, objectMapper);
+    }
+
+    @Test
+    void canWrite_ShouldAcceptBooksAndBookCollectionsOnly() {
+        assertThat(converter.canWrite(BookDTO.class, BookDTO.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(BOOK_LIST, ArrayList.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(BookPageDTO.class, BookPageDTO.class, null)).isTrue();
+        assertThat(converter.canWrite(BookLookupDTO.class, BookLookupDTO.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(List.class, ArrayList.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(String.class, String.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(BookDTO.class, BookDTO.class, MediaType.APPLICATION_XML)).isFalse();
+        assertThat(converter.canRead(BookDTO.class, null, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    @Test
+    void write_ShouldProduceTheSameJsonAsJackson() throws Exception {
+        // GIVEN
+        List<BookDTO> books = List.of(book(1L, "Effective \"Java\"", 3L), book(2L, "Clean Code", null));
+        BookPageDTO page = new BookPageDTO(books, "MTI=");
+
+        // WHEN / THEN
+        assertThat(write(books.get(0), BookDTO.class)).isEqualTo(objectMapper.writeValueAsString(books.get(0)));
+        assertThat(write(books, BOOK_LIST)).isEqualTo(objectMapper.writeValueAsString(books));
+        assertThat(write(List.of(), BOOK_LIST)).isEqualTo("[]");
+        assertThat(write(page, BookPageDTO.class)).isEqualTo(objectMapper.writeValueAsString(page));
+        assertThat(write(new BookPageDTO(books, null), BookPageDTO.class))
+                .isEqualTo(objectMapper.writeValueAsString(new BookPageDTO(books, null)));
+        BookLookupDTO lookup = new BookLookupDTO(books, List.of(7L, 9L));
+        assertThat(write(lookup, BookLookupDTO.class)).isEqualTo(objectMapper.writeValueAsString(lookup));
+    }
+
+    @Test
+    void toJson_ShouldReuseBytesForTheSameVersionOnly() {
+        // GIVEN
+        byte[] first = cache.toJson(book(1L, "Effective Java", 3L));
+
+        // WHEN
+        byte[] sameVersion = cache.toJson(book(1L, "Effective Java", 3L));
+        byte[] newVersion = cache.toJson(book(1L, "Effective Java 3rd Edition", 4L));
+
+        // THEN
+        assertThat(sameVersion).isSameAs(first);
+        assertThat(new String(newVersion)).contains("3rd Edition");
+    }
+
+    @Test
+    void onBookUpdated_ShouldEvictTheCachedBytes() {
+        // GIVEN
+        BookDTO book = book(1L, "Effective Java", 3L);
+        byte[] first = cache.toJson(book);
+
+        // WHEN
+        cache.onBookUpdated(new BookUpdatedEvent(book));
+
+        // THEN
+        assertThat(cache.toJson(book)).isNotSameAs(first).isEqualTo(first);
+    }
+
+    private String write(Object body, Type type) throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(body, type, MediaType.APPLICATION_JSON, message);
+        assertThat(message.getHeaders().getContentLength()).isEqualTo(message.getBodyAsBytes().length);
+        return message.getBodyAsString();
+    }
+
+    private static BookDTO book(Long id, String title, Long version) {
+        BookDTO book = new BookDTO(id, title, "Joshua Bloch", LocalDate.of(2018, 1, 1));
+        book.setVersion(version);
+        return book;
+    }
+}
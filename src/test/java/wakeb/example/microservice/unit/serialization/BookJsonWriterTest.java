@@ -0,0 +1,64 @@
+package wakeb.example.microservice.unit.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookDTOMapper;
+import wakeb.example.microservice.model.Book;
+import wakeb.example.microservice.serialization.BookDTOSerializer;
+import wakeb.example.microservice.serialization.BookJsonWriter;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookJsonWriterTest {
+
+    // Reflection-based bean serialization, as configured by Spring Boot without the hand-written serializer
+    private final ObjectMapper reflectionMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void write_ShouldMatchReflectionBasedSerialization() throws Exception {
+        // GIVEN
+        Book entity = new Book("Effective \"Java\" \u00e9dition", "Joshua Bloch", LocalDate.of(2018, 1, 1));
+        entity.setId(1L);
+        entity.setVersion(3L);
+        Book undated = new Book("Clean Code", null, null);
+        undated.setId(2L);
+
+        // WHEN / THEN
+        for (Book book : List.of(entity, undated)) {
+            String expected = reflectionMapper.writeValueAsString(BookDTOMapper.toDTO(book));
+            assertThat(write(book)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void serializer_ShouldReplaceReflectionForBookDTOs() throws Exception {
+        // GIVEN
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializerByType(BookDTO.class, new BookDTOSerializer())
+                .build();
+        BookDTO book = new BookDTO(1L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1));
+
+        // WHEN / THEN
+        assertThat(mapper.writeValueAsString(List.of(book)))
+                .isEqualTo(reflectionMapper.writeValueAsString(List.of(book)));
+    }
+
+    private static String write(Book book) throws Exception {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = new ObjectMapper().createGenerator(out)) {
+            BookJsonWriter.write(generator, book);
+        }
+        return out.toString();
+    }
+}
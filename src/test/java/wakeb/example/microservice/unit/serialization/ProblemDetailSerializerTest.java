@@ -0,0 +1,54 @@
+package wakeb.example.microservice.unit.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wakeb.example.microservice.dto.error.ProblemDetail;
+import wakeb.example.microservice.exception.custom.BookNotFoundException;
+import wakeb.example.microservice.serialization.ProblemDetailSerializer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProblemDetailSerializerTest {
+
+    // Reflection-based bean serialization, as configured by Spring Boot without the hand-written serializer
+    private final ObjectMapper reflectionMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .serializerByType(ProblemDetail.class, new ProblemDetailSerializer())
+            .build();
+
+    @Test
+    void serialize_ShouldMatchReflectionBasedSerialization() throws Exception {
+        // GIVEN
+        ProblemDetail full = new ProblemDetail("https://example.com/probs/validation-error", "Validation Error",
+                HttpStatus.BAD_REQUEST, "Validation failed for the request.", "/api/books",
+                List.of("title: must not be blank", "author: \"x\" is too short"), "VALIDATION_ERROR");
+        ProblemDetail minimal = new ProblemDetail();
+        // Whole minutes are where LocalDateTime.toString() and Jackson's format differ
+        minimal.setTimestamp(LocalDateTime.of(2024, 3, 1, 10, 15));
+
+        // WHEN / THEN
+        for (ProblemDetail problem : List.of(full, minimal)) {
+            assertThat(mapper.writeValueAsString(problem)).isEqualTo(reflectionMapper.writeValueAsString(problem));
+        }
+    }
+
+    @Test
+    void customExceptions_ShouldNotCaptureStackTraces() {
+        // GIVEN & WHEN
+        BookNotFoundException exception = new BookNotFoundException("Book not found");
+
+        // THEN
+        assertThat(exception.getStackTrace()).isEmpty();
+        assertThat(exception.getErrorCode()).isEqualTo("BOOKNOTFOUNDEXCEPTION");
+    }
+}
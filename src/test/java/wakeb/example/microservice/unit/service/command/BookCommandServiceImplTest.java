@@ -1,20 +1,36 @@
 package wakeb.example.microservice.unit.service.command;
 
 
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.dto.book.BookBatchResultDTO;
 import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.event.BookCreatedEvent;
+import wakeb.example.microservice.event.BookDeletedEvent;
+import wakeb.example.microservice.event.BookUpdatedEvent;
 import wakeb.example.microservice.exception.ExceptionMessagesEnum;
 import wakeb.example.microservice.exception.custom.BookAlreadyExistsException;
+import wakeb.example.microservice.exception.custom.BookModifiedConcurrentlyException;
 import wakeb.example.microservice.service.implementation.BookCommandServiceImpl;
 import wakeb.example.microservice.model.Book;
 import wakeb.example.microservice.repository.BookRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,6 +45,15 @@ class BookCommandServiceImplTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private BookProperties bookProperties = new BookProperties();
+
     @InjectMocks
     private BookCommandServiceImpl bookCommandService;
 
@@ -53,32 +78,33 @@ class BookCommandServiceImplTest {
     @Test
     void createBook_WhenBookDoesNotExist_ShouldSaveAndReturnDto() {
         // GIVEN
-        when(bookRepository.existsByTitle("Clean Code")).thenReturn(false);
-        when(bookRepository.save(any(Book.class))).thenReturn(bookEntity);
+        when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(bookEntity);
 
         // WHEN
         BookDTO result = bookCommandService.createBook(validDto);
 
-        // THEN
-        verify(bookRepository, times(1)).existsByTitle("Clean Code");
-        verify(bookRepository, times(1)).save(any(Book.class));
+        // THEN: a single round trip, no separate existence check
+        verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
+        verifyNoMoreInteractions(bookRepository);
         assertThat(result.getTitle()).isEqualTo("Clean Code");
         assertThat(result.getAuthor()).isEqualTo("Robert C. Martin");
         assertThat(result.getId()).isEqualTo(1L);
+        ArgumentCaptor<BookCreatedEvent> event = ArgumentCaptor.forClass(BookCreatedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().getBook()).isSameAs(result);
     }
 
     @Test
     void createBook_WhenBookAlreadyExists_ShouldThrowBookAlreadyExistsException() {
-        // GIVEN
-        when(bookRepository.existsByTitle("Clean Code")).thenReturn(true);
+        // GIVEN: the database rejects the insert on the unique title constraint
+        when(bookRepository.saveAndFlush(any(Book.class))).thenThrow(duplicateTitleViolation());
 
         // WHEN & THEN
         assertThatThrownBy(() -> bookCommandService.createBook(validDto))
                 .isInstanceOf(BookAlreadyExistsException.class)
                 .hasMessage(ExceptionMessagesEnum.BOOK_ALREADY_EXISTS.getMessage());
 
-        verify(bookRepository, times(1)).existsByTitle("Clean Code");
-        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
     }
 
     @Test
@@ -89,7 +115,7 @@ class BookCommandServiceImplTest {
         existingBook.setId(1L);
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
-        when(bookRepository.save(existingBook)).thenAnswer(inv -> {
+        when(bookRepository.saveAndFlush(existingBook)).thenAnswer(inv -> {
             existingBook.setTitle("Updated Title");
             existingBook.setAuthor("Updated Author");
             existingBook.setPublicationDate(LocalDate.of(2020, 1, 1));
@@ -101,7 +127,7 @@ class BookCommandServiceImplTest {
 
         // THEN
         verify(bookRepository, times(1)).findById(1L);
-        verify(bookRepository, times(1)).save(existingBook);
+        verify(bookRepository, times(1)).saveAndFlush(existingBook);
         assertThat(result.getTitle()).isEqualTo("Updated Title");
         assertThat(result.getAuthor()).isEqualTo("Updated Author");
         assertThat(result.getPublicationDate()).isEqualTo(LocalDate.of(2020, 1, 1));
@@ -117,7 +143,7 @@ class BookCommandServiceImplTest {
                 .hasMessageContaining("Book not found");
 
         verify(bookRepository, times(1)).findById(99L);
-        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookRepository, never()).saveAndFlush(any(Book.class));
     }
 
     @Test
@@ -127,6 +153,115 @@ class BookCommandServiceImplTest {
 
         // THEN
         verify(bookRepository, times(1)).deleteById(1L);
+        ArgumentCaptor<BookDeletedEvent> event = ArgumentCaptor.forClass(BookDeletedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().getBookId()).isEqualTo(1L);
     }
-}
 
+    @Test
+    void createBooks_ShouldCreateNewTitlesAndReportDuplicates() {
+        // GIVEN: "Clean Code" already exists and "Refactoring" is submitted twice
+        BookDTO refactoring = new BookDTO(null, "Refactoring", "Martin Fowler", LocalDate.of(1999, 7, 8));
+        BookDTO refactoringAgain = new BookDTO(null, "Refactoring", "Someone Else", LocalDate.of(2000, 1, 1));
+        List<BookDTO> batch = Arrays.asList(validDto, refactoring, refactoringAgain);
+
+        when(bookRepository.findExistingTitles(any())).thenReturn(Collections.singletonList("Clean Code"));
+        when(bookRepository.save(any(Book.class))).thenAnswer(inv -> {
+            Book book = inv.getArgument(0);
+            book.setId(7L);
+            return book;
+        });
+
+        // WHEN
+        List<BookBatchResultDTO> results = bookCommandService.createBooks(batch);
+
+        // THEN
+        assertThat(results).extracting(BookBatchResultDTO::getStatus).containsExactly(
+                BookBatchResultDTO.Status.DUPLICATE,
+                BookBatchResultDTO.Status.CREATED,
+                BookBatchResultDTO.Status.DUPLICATE);
+        assertThat(results.get(1).getId()).isEqualTo(7L);
+        verify(bookRepository, times(1)).findExistingTitles(any());
+        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, atLeastOnce()).flush();
+        verify(entityManager, atLeastOnce()).clear();
+        verify(eventPublisher, times(1)).publishEvent(any(BookCreatedEvent.class));
+    }
+
+    @Test
+    void createBooks_WhenConcurrentWriterTookATitle_ShouldThrowBookAlreadyExistsException() {
+        // GIVEN: the title is free when looked up, but taken by the time the batch is flushed
+        when(bookRepository.findExistingTitles(any())).thenReturn(Collections.emptyList());
+        doThrow(duplicateTitleViolation()).when(bookRepository).flush();
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> bookCommandService.createBooks(List.of(validDto)))
+                .isInstanceOf(BookAlreadyExistsException.class);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateBook_WhenTitleBelongsToAnotherBook_ShouldThrowBookAlreadyExistsException() {
+        // GIVEN
+        Book existingBook = new Book("Old Title", "Old Author", LocalDate.of(2010, 1, 1));
+        existingBook.setId(1L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+        when(bookRepository.saveAndFlush(existingBook)).thenThrow(duplicateTitleViolation());
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> bookCommandService.updateBook(1L, validDto))
+                .isInstanceOf(BookAlreadyExistsException.class);
+    }
+
+    @Test
+    void updateBook_WhenVersionIsStale_ShouldThrowBookModifiedConcurrentlyException() {
+        // GIVEN: another request updated the book between our read and our write
+        Book existingBook = new Book("Old Title", "Old Author", LocalDate.of(2010, 1, 1));
+        existingBook.setId(1L);
+        existingBook.setVersion(4L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+        when(bookRepository.saveAndFlush(existingBook))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> bookCommandService.updateBook(1L, validDto))
+                .isInstanceOf(BookModifiedConcurrentlyException.class)
+                .hasMessage(ExceptionMessagesEnum.BOOK_MODIFIED_CONCURRENTLY.getMessage());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateBooks_ShouldFlushOnceAndReportMissingBooks() {
+        // GIVEN
+        BookDTO change = new BookDTO(1L, "Clean Code 2nd Edition", "Robert C. Martin", LocalDate.of(2008, 8, 1));
+        BookDTO missing = new BookDTO(2L, "Refactoring", "Martin Fowler", null);
+        when(bookRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(bookEntity));
+
+        // WHEN
+        List<BookBatchResultDTO> results = bookCommandService.updateBooks(List.of(change, missing));
+
+        // THEN
+        assertThat(results).extracting(BookBatchResultDTO::getStatus)
+                .containsExactly(BookBatchResultDTO.Status.UPDATED, BookBatchResultDTO.Status.NOT_FOUND);
+        assertThat(bookEntity.getTitle()).isEqualTo("Clean Code 2nd Edition");
+        verify(bookRepository, times(1)).flush();
+        verify(eventPublisher, times(1)).publishEvent(any(BookUpdatedEvent.class));
+    }
+
+    @Test
+    void createBook_WhenOtherIntegrityViolation_ShouldPropagateIt() {
+        // GIVEN
+        DataIntegrityViolationException other = new DataIntegrityViolationException("not null",
+                new org.hibernate.exception.ConstraintViolationException("not null", new SQLException(), "books_author_nn"));
+        when(bookRepository.saveAndFlush(any(Book.class))).thenThrow(other);
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> bookCommandService.createBook(validDto))
+                .isSameAs(other);
+    }
+
+    private DataIntegrityViolationException duplicateTitleViolation() {
+        return new DataIntegrityViolationException("duplicate title",
+                new org.hibernate.exception.ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UK_BOOKS_TITLE_INDEX_3"));
+    }
+}
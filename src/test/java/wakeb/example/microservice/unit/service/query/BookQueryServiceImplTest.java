@@ -1,24 +1,51 @@
 package wakeb.example.microservice.unit.service.query;
 
+import wakeb.example.microservice.dto.book.BookCursorCodec;
 import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.dto.book.BookLookupDTO;
+import wakeb.example.microservice.dto.book.BookPageDTO;
+import wakeb.example.microservice.dto.book.BookSearchCriteriaDTO;
 import wakeb.example.microservice.exception.custom.BookNotFoundException;
+import wakeb.example.microservice.exception.custom.InvalidCursorException;
+import wakeb.example.microservice.exception.custom.TooManyIdsException;
 import wakeb.example.microservice.model.Book;
 import wakeb.example.microservice.repository.BookRepository;
+import wakeb.example.microservice.search.BookTextIndex;
 import wakeb.example.microservice.service.implementation.BookQueryServiceImpl;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.StringWriter;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -28,6 +55,21 @@ class BookQueryServiceImplTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private BookTextIndex bookTextIndex;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private BookQueryServiceImpl bookQueryService;
 
@@ -95,6 +137,91 @@ class BookQueryServiceImplTest {
         assertThat(result.get(1).getTitle()).isIn("Effective Java", "Clean Code");
     }
 
+    @Test
+    void findAllBooks_WhenCalledConcurrently_ShouldOpenOneTransaction() throws Exception {
+        // GIVEN: the query runs until a second caller has joined it
+        Counter coalesced = meterRegistry.counter(BookQueryServiceImpl.COALESCED_COUNTER, "operation", "findAllBooks");
+        when(bookRepository.findAll()).thenAnswer(invocation -> {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (coalesced.count() < 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            return List.of(book1);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // WHEN
+        Future<List<BookDTO>> first = executor.submit(() -> bookQueryService.findAllBooks());
+        Future<List<BookDTO>> second = executor.submit(() -> bookQueryService.findAllBooks());
+
+        // THEN: the waiting caller neither queried nor began a transaction
+        assertThat(first.get(5, TimeUnit.SECONDS)).extracting(BookDTO::getId).containsExactly(1L);
+        assertThat(second.get(5, TimeUnit.SECONDS)).extracting(BookDTO::getId).containsExactly(1L);
+        executor.shutdown();
+        verify(bookRepository, times(1)).findAll();
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void findBooksByIds_ShouldServeCacheHitsAndLoadOnlyMissesInRequestOrder() {
+        // GIVEN: book 2 is cached, book 1 is in the database, book 9 does not exist
+        ConcurrentMapCache cache = new ConcurrentMapCache("books");
+        cache.put(2L, new BookDTO(2L, "Clean Code", "Robert C. Martin", LocalDate.of(2008, 8, 1)));
+        when(cacheManager.getCache("books")).thenReturn(cache);
+        when(bookRepository.findAllById(List.of(9L, 1L))).thenReturn(List.of(book1));
+
+        // WHEN
+        BookLookupDTO result = bookQueryService.findBooksByIds(Arrays.asList(9L, 2L, 1L, 2L, null));
+
+        // THEN
+        assertThat(result.getItems()).extracting(BookDTO::getId).containsExactly(2L, 1L);
+        assertThat(result.getMissingIds()).containsExactly(9L);
+        assertThat(cache.get(1L, BookDTO.class)).isNotNull();
+        verify(bookRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void findBooksByIds_WhenEveryIdIsCached_ShouldNotOpenATransaction() {
+        // GIVEN
+        ConcurrentMapCache cache = new ConcurrentMapCache("books");
+        cache.put(1L, new BookDTO(1L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1)));
+        cache.put(2L, new BookDTO(2L, "Clean Code", "Robert C. Martin", LocalDate.of(2008, 8, 1)));
+        when(cacheManager.getCache("books")).thenReturn(cache);
+
+        // WHEN
+        BookLookupDTO result = bookQueryService.findBooksByIds(List.of(2L, 1L));
+
+        // THEN
+        assertThat(result.getItems()).extracting(BookDTO::getId).containsExactly(2L, 1L);
+        verifyNoInteractions(transactionManager, bookRepository);
+    }
+
+    @Test
+    void findBooksByIds_ShouldQueryMissesInChunks() {
+        // GIVEN
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= BookQueryServiceImpl.LOOKUP_CHUNK_SIZE + 1; id++) {
+            ids.add(id);
+        }
+
+        // WHEN
+        BookLookupDTO result = bookQueryService.findBooksByIds(ids);
+
+        // THEN
+        verify(bookRepository, times(2)).findAllById(any());
+        assertThat(result.getMissingIds()).hasSize(ids.size());
+    }
+
+    @Test
+    void findBooksByIds_WhenTooManyIds_ShouldThrow() {
+        // GIVEN
+        List<Long> ids = Collections.nCopies(BookQueryServiceImpl.MAX_LOOKUP_IDS + 1, 1L);
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> bookQueryService.findBooksByIds(ids)).isInstanceOf(TooManyIdsException.class);
+        verifyNoInteractions(bookRepository);
+    }
+
     @Test
     void findAllBooks_WhenNoBooksExist_ShouldReturnEmptyList() {
         // GIVEN
@@ -107,4 +234,109 @@ class BookQueryServiceImplTest {
         verify(bookRepository, times(1)).findAll();
         assertThat(result).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findBooksPage_WhenMoreRowsThanLimit_ShouldReturnPageAndNextCursor() {
+        // GIVEN: the repository returns limit + 1 rows, signalling another page
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(book1, book2));
+
+        // WHEN
+        BookPageDTO result = bookQueryService.findBooksPage(null, 1);
+
+        // THEN
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getItems().get(0).getId()).isEqualTo(1L);
+        assertThat(BookCursorCodec.decode(result.getNextCursor())).isEqualTo(1L);
+    }
+
+    @Test
+    void findBooksPage_WhenLastPage_ShouldReturnNoCursor() {
+        // GIVEN
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(11)))
+                .thenReturn(Collections.singletonList(book2));
+
+        // WHEN
+        BookPageDTO result = bookQueryService.findBooksPage(BookCursorCodec.encode(1L), 10);
+
+        // THEN
+        assertThat(result.getItems()).extracting(BookDTO::getId).containsExactly(2L);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void findBooksPage_WhenCursorIsMalformed_ShouldThrowInvalidCursorException() {
+        // WHEN & THEN
+        assertThatThrownBy(() -> bookQueryService.findBooksPage("not-a-cursor!", 10))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessageContaining("Invalid pagination cursor");
+
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void exportAllBooks_ShouldPassEachBookToConsumerAndDetachIt() {
+        // GIVEN
+        when(bookRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(book1, book2));
+        List<BookDTO> exported = new ArrayList<>();
+
+        // WHEN
+        bookQueryService.exportAllBooks(exported::add);
+
+        // THEN
+        assertThat(exported).extracting(BookDTO::getId).containsExactly(1L, 2L);
+        verify(entityManager, times(1)).detach(book1);
+        verify(entityManager, times(1)).detach(book2);
+    }
+
+    @Test
+    void writeAllBooks_ShouldWriteOneJsonObjectPerLineAndDetachEachBook() throws Exception {
+        // GIVEN
+        when(bookRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(book1, book2));
+        StringWriter out = new StringWriter();
+
+        // WHEN
+        try (JsonGenerator generator = new JsonFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            bookQueryService.writeAllBooks(generator);
+        }
+
+        // THEN
+        String[] lines = out.toString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":1,").contains("\"title\":\"Effective Java\"");
+        assertThat(lines[1]).startsWith("{\"id\":2,");
+        verify(entityManager, times(1)).detach(book1);
+        verify(entityManager, times(1)).detach(book2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchBooks_ShouldRunOneSpecificationQueryAndPageResults() {
+        // GIVEN
+        BookSearchCriteriaDTO criteria = new BookSearchCriteriaDTO("Joshua Bloch", "Eff", null, null);
+        when(bookRepository.findBy(any(Specification.class), any())).thenReturn(Arrays.asList(book1, book2));
+
+        // WHEN
+        BookPageDTO result = bookQueryService.searchBooks(criteria, null, 1);
+
+        // THEN
+        verify(bookRepository, times(1)).findBy(any(Specification.class), any());
+        assertThat(result.getItems()).extracting(BookDTO::getId).containsExactly(1L);
+        assertThat(BookCursorCodec.decode(result.getNextCursor())).isEqualTo(1L);
+    }
+
+    @Test
+    void searchBooksByText_ShouldDelegateToIndexWithClampedPaging() {
+        // GIVEN
+        BookDTO match = new BookDTO(1L, "Effective Java", "Joshua Bloch", LocalDate.of(2018, 1, 1));
+        when(bookTextIndex.search("java", 0, BookQueryServiceImpl.MAX_PAGE_LIMIT)).thenReturn(List.of(match));
+
+        // WHEN
+        List<BookDTO> result = bookQueryService.searchBooksByText("java", -1, 5000);
+
+        // THEN: the database is not queried
+        assertThat(result).containsExactly(match);
+        verifyNoInteractions(bookRepository);
+    }
+}
@@ -0,0 +1,78 @@
+package wakeb.example.microservice.unit.service.query;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import wakeb.example.microservice.service.implementation.CoalescedLoadCountingCache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescedLoadCountingCacheTest {
+
+    private final Counter coalesced = new SimpleMeterRegistry().counter("coalesced");
+
+    private final CoalescedLoadCountingCache cache = new CoalescedLoadCountingCache(new ConcurrentMapCache("books"), coalesced);
+
+    @Test
+    void get_WhenALoadIsInFlight_ShouldCountTheCallerWaitingOnIt() throws Exception {
+        // GIVEN: a load that blocks until released
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.get(1L, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "Effective Java";
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // WHEN: a second caller arrives while the first one loads
+            AtomicReference<Thread> waiter = new AtomicReference<>();
+            Future<String> second = executor.submit(() -> {
+                waiter.set(Thread.currentThread());
+                return cache.get(1L, () -> {
+                    loads.incrementAndGet();
+                    return "Effective Java";
+                });
+            });
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((waiter.get() == null || waiter.get().getState() != Thread.State.BLOCKED) && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // THEN
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("Effective Java");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("Effective Java");
+            assertThat(loads).hasValue(1);
+            assertThat(coalesced.count()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_WhenTheValueIsCached_ShouldNotCountAHit() {
+        // GIVEN
+        cache.put(1L, "Effective Java");
+
+        // WHEN
+        String value = cache.get(1L, () -> "Clean Code");
+
+        // THEN
+        assertThat(value).isEqualTo("Effective Java");
+        assertThat(coalesced.count()).isZero();
+    }
+}
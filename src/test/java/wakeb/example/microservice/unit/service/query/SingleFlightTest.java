@@ -0,0 +1,78 @@
+package wakeb.example.microservice.unit.service.query;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import wakeb.example.microservice.exception.custom.BookNotFoundException;
+import wakeb.example.microservice.service.implementation.SingleFlight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final Counter coalesced = new SimpleMeterRegistry().counter("coalesced");
+
+    private final SingleFlight<Long, String> flights = new SingleFlight<>(coalesced);
+
+    @Test
+    void execute_WhenCallsOverlap_ShouldRunTheLoaderOnce() throws Exception {
+        // GIVEN: a load that blocks until every other caller has joined it
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+
+            // WHEN
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> flights.execute(1L, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "Effective Java";
+                })));
+            }
+            while (coalesced.count() < 7) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // THEN
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Effective Java");
+            }
+            assertThat(loads).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WhenLoaderFails_ShouldRethrowAndForgetTheKey() {
+        // GIVEN & WHEN & THEN
+        assertThatThrownBy(() -> flights.execute(1L, () -> {
+            throw new BookNotFoundException("Book not found");
+        })).isInstanceOf(BookNotFoundException.class);
+
+        // THEN: the next call loads again
+        assertThat(flights.execute(1L, () -> "Clean Code")).isEqualTo("Clean Code");
+        assertThat(coalesced.count()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
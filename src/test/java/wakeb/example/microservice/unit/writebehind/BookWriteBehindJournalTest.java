@@ -0,0 +1,93 @@
+package wakeb.example.microservice.unit.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.writebehind.BookWriteBehindJournal;
+import wakeb.example.microservice.writebehind.BookWriteCommand;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookWriteBehindJournalTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void sync_WhenCalledConcurrently_ShouldMakeEveryRecordDurable() throws Exception {
+        // GIVEN
+        BookWriteBehindJournal journal = open();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> submissions = new ArrayList<>();
+
+        // WHEN: writers share forces instead of forcing one by one
+        for (int i = 0; i < 200; i++) {
+            BookWriteCommand command = command("command-" + i);
+            submissions.add(executor.submit(() -> {
+                journal.sync(journal.write(command));
+                return null;
+            }));
+        }
+        for (Future<?> submission : submissions) {
+            submission.get();
+        }
+        executor.shutdown();
+        journal.close();
+
+        // THEN
+        assertThat(open().recover()).hasSize(200);
+    }
+
+    @Test
+    void complete_WhenTheFileOutgrowsTheCompactionSize_ShouldKeepOnlyPendingCommands() throws Exception {
+        // GIVEN: a journal compacted past 4KB, with one command that is never written
+        BookWriteBehindJournal journal = open(4096);
+        journal.sync(journal.write(command("still-pending")));
+
+        // WHEN
+        for (int i = 0; i < 200; i++) {
+            BookWriteCommand command = command("written-" + i);
+            journal.sync(journal.write(command));
+            journal.complete(List.of(command.getCommandId()));
+        }
+        BookWriteCommand last = command("accepted-after-compaction");
+        journal.sync(journal.write(last));
+        journal.close();
+
+        // THEN: the file stayed small and still holds every pending command
+        assertThat(journal.size()).isLessThan(4096 + 1024);
+        assertThat(open().recover()).extracting(BookWriteCommand::getCommandId)
+                .containsExactly("still-pending", "accepted-after-compaction");
+    }
+
+    private BookWriteBehindJournal open() throws Exception {
+        return open(1 << 20);
+    }
+
+    private BookWriteBehindJournal open(long compactionSize) throws Exception {
+        BookWriteBehindJournal journal = new BookWriteBehindJournal(tempDir.resolve("write-behind.ndjson"), objectMapper,
+                compactionSize);
+        journal.recover();
+        return journal;
+    }
+
+    private static BookWriteCommand command(String commandId) {
+        return new BookWriteCommand(commandId, BookWriteCommand.Type.CREATE,
+                new BookDTO(null, commandId, "Author", LocalDate.of(2020, 1, 1)));
+    }
+}
@@ -0,0 +1,154 @@
+package wakeb.example.microservice.unit.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wakeb.example.microservice.config.BookProperties;
+import wakeb.example.microservice.dto.book.BookBatchResultDTO;
+import wakeb.example.microservice.dto.book.BookCommandStatusDTO;
+import wakeb.example.microservice.dto.book.BookDTO;
+import wakeb.example.microservice.exception.ExceptionMessagesEnum;
+import wakeb.example.microservice.exception.custom.BookAlreadyExistsException;
+import wakeb.example.microservice.exception.custom.WriteQueueFullException;
+import wakeb.example.microservice.service.interfaces.BookCommandService;
+import wakeb.example.microservice.writebehind.BookWriteBehindQueue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookWriteBehindQueueTest {
+
+    @Mock
+    private BookCommandService bookCommandService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @TempDir
+    private Path tempDir;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private BookProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BookProperties();
+        properties.getWriteBehind().setQueueCapacity(2);
+        properties.getWriteBehind().setJournalFile(tempDir.resolve("write-behind.ndjson").toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldCollapseQueuedUpdatesOfTheSameBook() throws Exception {
+        // GIVEN
+        BookWriteBehindQueue queue = newQueue();
+        BookCommandStatusDTO first = queue.submitUpdate(7L, book("Draft"));
+        BookCommandStatusDTO second = queue.submitUpdate(7L, book("Final"));
+        when(bookCommandService.updateBooks(anyList())).thenReturn(
+                List.of(new BookBatchResultDTO(0, BookBatchResultDTO.Status.UPDATED, 7L, "Final")));
+
+        // WHEN
+        assertThat(queue.size()).isEqualTo(1);
+        queue.flush();
+
+        // THEN: one write with the latest state, shared by both commands
+        ArgumentCaptor<List<BookDTO>> written = ArgumentCaptor.forClass(List.class);
+        verify(bookCommandService, times(1)).updateBooks(written.capture());
+        assertThat(written.getValue()).extracting(BookDTO::getTitle).containsExactly("Final");
+        assertThat(written.getValue().get(0).getId()).isEqualTo(7L);
+        assertThat(queue.findStatus(first.getCommandId())).get()
+                .extracting(BookCommandStatusDTO::getStatus).isEqualTo(BookCommandStatusDTO.Status.APPLIED);
+        assertThat(queue.findStatus(second.getCommandId())).get()
+                .extracting(BookCommandStatusDTO::getStatus).isEqualTo(BookCommandStatusDTO.Status.APPLIED);
+        verify(cacheManager, times(1)).getCache(any());
+    }
+
+    @Test
+    void submit_WhenQueueIsFull_ShouldRejectAllButCoalescingUpdates() throws Exception {
+        // GIVEN
+        BookWriteBehindQueue queue = newQueue();
+        queue.submitCreate(book("One"));
+        queue.submitUpdate(7L, book("Two"));
+
+        // WHEN & THEN
+        assertThatThrownBy(() -> queue.submitCreate(book("Three")))
+                .isInstanceOf(WriteQueueFullException.class)
+                .hasMessage(ExceptionMessagesEnum.WRITE_QUEUE_FULL.getMessage());
+        queue.submitUpdate(7L, book("Two, revised"));
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    void flush_WhenBatchFails_ShouldWriteCommandsOneByOne() throws Exception {
+        // GIVEN: a concurrent writer took one of the titles after the duplicate check
+        BookWriteBehindQueue queue = newQueue();
+        BookCommandStatusDTO taken = queue.submitCreate(book("Taken"));
+        BookCommandStatusDTO free = queue.submitCreate(book("Free"));
+        when(bookCommandService.createBooks(anyList()))
+                .thenThrow(new BookAlreadyExistsException(ExceptionMessagesEnum.BOOK_ALREADY_EXISTS.getMessage()));
+        when(bookCommandService.createBook(any(BookDTO.class))).thenAnswer(invocation -> {
+            BookDTO book = invocation.getArgument(0);
+            if (book.getTitle().equals("Taken")) {
+                throw new BookAlreadyExistsException(ExceptionMessagesEnum.BOOK_ALREADY_EXISTS.getMessage());
+            }
+            return new BookDTO(42L, book.getTitle(), book.getAuthor(), book.getPublicationDate());
+        });
+
+        // WHEN
+        queue.flush();
+
+        // THEN
+        BookCommandStatusDTO failed = queue.findStatus(taken.getCommandId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(BookCommandStatusDTO.Status.FAILED);
+        assertThat(failed.getDetail()).isEqualTo(ExceptionMessagesEnum.BOOK_ALREADY_EXISTS.getMessage());
+        BookCommandStatusDTO applied = queue.findStatus(free.getCommandId()).orElseThrow();
+        assertThat(applied.getStatus()).isEqualTo(BookCommandStatusDTO.Status.APPLIED);
+        assertThat(applied.getBookId()).isEqualTo(42L);
+    }
+
+    @Test
+    void constructor_ShouldRecoverCommandsThatWereNotWritten() throws Exception {
+        // GIVEN: a command accepted by a previous instance that stopped before writing it
+        BookCommandStatusDTO accepted = newQueue().submitCreate(book("Survivor"));
+        when(bookCommandService.createBooks(anyList())).thenReturn(
+                List.of(new BookBatchResultDTO(0, BookBatchResultDTO.Status.CREATED, 1L, "Survivor")));
+
+        // WHEN
+        BookWriteBehindQueue restarted = newQueue();
+
+        // THEN
+        assertThat(restarted.findStatus(accepted.getCommandId())).get()
+                .extracting(BookCommandStatusDTO::getStatus).isEqualTo(BookCommandStatusDTO.Status.PENDING);
+        assertThat(restarted.flush()).isTrue();
+        verify(bookCommandService, times(1)).createBooks(anyList());
+        assertThat(newQueue().size()).isZero();
+    }
+
+    private BookWriteBehindQueue newQueue() throws Exception {
+        return new BookWriteBehindQueue(bookCommandService, cacheManager, objectMapper, properties, new SimpleMeterRegistry());
+    }
+
+    private static BookDTO book(String title) {
+        return new BookDTO(null, title, "Author", LocalDate.of(2020, 1, 1));
+    }
+}
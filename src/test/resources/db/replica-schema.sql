@@ -0,0 +1,9 @@
+-- Schema of the replica database used by ReadReplicaRoutingIntegrationTest; Hibernate only creates the primary's
+CREATE TABLE IF NOT EXISTS books (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255) CONSTRAINT uk_books_title UNIQUE,
+    author VARCHAR(255),
+    publication_date DATE,
+    version BIGINT,
+    last_modified TIMESTAMP(6) WITH TIME ZONE
+);